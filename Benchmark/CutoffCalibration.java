@@ -0,0 +1,194 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the insertion sort cutoff that makes the merge and quick sort engines fastest on
+ * the current host, for each element type.
+ *
+ * For every (engine, element type) pair the sort is timed with each candidate cutoff using
+ * the SortBenchmark measurement loop. The candidates are measured round robin for several
+ * rounds, so slow drift in clock speed or heap state spreads evenly over all of them, and
+ * the best round of each candidate is kept. The table lists ns per element for every
+ * cutoff, marks the fastest, and compares it with the default the engine ships with.
+ *
+ * Build and run from the repository root:
+ *
+ *   javac -d out Sorts/*.java MergeSort/*.java Benchmark/*.java
+ *   java -cp out CutoffCalibration [-engines merge,quick] [-types int,long,double]
+ *                                  [-dists random] [-size 100000] [-cutoffs 1,8,16,32,64]
+ *                                  [-rounds 3] [-wi 3] [-i 5] [-forks 1]
+ *
+ * Every (engine, element type, distribution) is calibrated in its own forked JVM, as in
+ * SortBenchmark, so JIT profiles gathered for one engine cannot leak into another. The
+ * candidates of one engine share that JVM: the cutoffs are passed as arguments, so the
+ * compiled code is the same for every candidate. -forks 0 runs the whole calibration in
+ * this JVM, which is quicker but lets the engines measured first bias the later ones.
+ */
+public class CutoffCalibration {
+
+    static final int[] DEFAULT_CUTOFFS = {1, 2, 4, 8, 12, 16, 24, 32, 48, 64, 96, 128};
+
+    // A sort engine for one element type with the cutoff as a parameter
+    interface Engine {
+        void sort(Object array, int cutoff);
+    }
+
+    // One (engine, element type) pair and the cutoff it uses by default
+    static final class Target {
+        final String engine;
+        final SortBenchmark.ElementType type;
+        final int defaultCutoff;
+        final Engine sort;
+
+        Target(String engine, SortBenchmark.ElementType type, int defaultCutoff, Engine sort) {
+            this.engine = engine;
+            this.type = type;
+            this.defaultCutoff = defaultCutoff;
+            this.sort = sort;
+        }
+    }
+
+    static List<Target> targets(int size) {
+        int[] intScratch = new int[size];
+        long[] longScratch = new long[size];
+        double[] doubleScratch = new double[size];
+        List<Target> targets = new ArrayList<>();
+        targets.add(new Target("merge", SortBenchmark.ElementType.INT, MergeSort.INSERTION_THRESHOLD,
+                (a, cutoff) -> MergeSort.sort((int[]) a, 0, ((int[]) a).length, intScratch, cutoff)));
+        targets.add(new Target("quick", SortBenchmark.ElementType.INT, QuickSort.INSERTION_THRESHOLD,
+                (a, cutoff) -> QuickSort.sort((int[]) a, 0, ((int[]) a).length, QuickSort.Partition.TWO_WAY, cutoff)));
+        targets.add(new Target("merge", SortBenchmark.ElementType.LONG, MergeSort.INSERTION_THRESHOLD,
+                (a, cutoff) -> MergeSort.sort((long[]) a, 0, ((long[]) a).length, longScratch, cutoff)));
+        targets.add(new Target("quick", SortBenchmark.ElementType.LONG, PrimitiveSorts.INSERTION_THRESHOLD,
+                (a, cutoff) -> PrimitiveSorts.quickSort((long[]) a, 0, ((long[]) a).length, cutoff)));
+        targets.add(new Target("merge", SortBenchmark.ElementType.DOUBLE, PrimitiveSorts.MERGE_INSERTION_THRESHOLD,
+                (a, cutoff) -> PrimitiveSorts.mergeSort((double[]) a, 0, ((double[]) a).length, doubleScratch, cutoff)));
+        targets.add(new Target("quick", SortBenchmark.ElementType.DOUBLE, PrimitiveSorts.INSERTION_THRESHOLD,
+                (a, cutoff) -> PrimitiveSorts.quickSort((double[]) a, 0, ((double[]) a).length, cutoff)));
+        return targets;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("-child")) {
+            runChild(args);
+            return;
+        }
+
+        List<String> engines = null;
+        List<String> types = null;
+        List<SortBenchmark.Distribution> dists = Arrays.asList(SortBenchmark.Distribution.RANDOM);
+        int size = 100_000;
+        int[] cutoffs = DEFAULT_CUTOFFS;
+        int rounds = 3;
+        int warmups = 3;
+        int iterations = 5;
+        int forks = 1;
+
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-engines": engines = Arrays.asList(value.split(",")); break;
+                case "-types": types = Arrays.asList(value.split(",")); break;
+                case "-dists": dists = SortBenchmark.parseDistributions(value); break;
+                case "-size": size = Integer.parseInt(value.replace("_", "")); break;
+                case "-cutoffs": cutoffs = SortBenchmark.parseSizes(value); break;
+                case "-rounds": rounds = Integer.parseInt(value); break;
+                case "-wi": warmups = Integer.parseInt(value); break;
+                case "-i": iterations = Integer.parseInt(value); break;
+                case "-forks": forks = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (forks != 0 && forks != 1) {
+            throw new IllegalArgumentException("Forks must be 0 or 1: " + forks);
+        }
+
+        System.out.printf("%-14s %-12s %8s %12s%n", "Engine", "Distribution", "Cutoff", "ns/elem");
+        for (Target target : targets(size)) {
+            if (engines != null && !engines.contains(target.engine)) {
+                continue;
+            }
+            if (types != null && !types.contains(target.type.name().toLowerCase())) {
+                continue;
+            }
+            for (SortBenchmark.Distribution dist : dists) {
+                if (forks == 0) {
+                    calibrate(target, dist, size, cutoffs, rounds, warmups, iterations);
+                } else {
+                    fork(target, dist, size, cutoffs, rounds, warmups, iterations);
+                }
+            }
+        }
+    }
+
+    // Calibrates one target in a fresh JVM, which prints its rows
+    private static void fork(Target target, SortBenchmark.Distribution dist, int size, int[] cutoffs,
+            int rounds, int warmups, int iterations) throws IOException, InterruptedException {
+        String list = Arrays.stream(cutoffs).mapToObj(Integer::toString).collect(Collectors.joining(","));
+        int status = SortBenchmark.runJvm(CutoffCalibration.class, Arrays.asList("-child", target.engine,
+                target.type.name(), dist.name(), Integer.toString(size), list, Integer.toString(rounds),
+                Integer.toString(warmups), Integer.toString(iterations)));
+        if (status != 0) {
+            System.out.printf("%-14s %-12s ERROR fork exited with %d%n",
+                    target.engine + ":" + target.type.name().toLowerCase(), dist, status);
+        }
+    }
+
+    private static void runChild(String[] args) {
+        SortBenchmark.ElementType type = SortBenchmark.ElementType.valueOf(args[2]);
+        SortBenchmark.Distribution dist = SortBenchmark.Distribution.valueOf(args[3]);
+        int size = Integer.parseInt(args[4]);
+        int[] cutoffs = SortBenchmark.parseSizes(args[5]);
+        int rounds = Integer.parseInt(args[6]);
+        int warmups = Integer.parseInt(args[7]);
+        int iterations = Integer.parseInt(args[8]);
+        for (Target target : targets(size)) {
+            if (target.engine.equals(args[1]) && target.type == type) {
+                calibrate(target, dist, size, cutoffs, rounds, warmups, iterations);
+            }
+        }
+    }
+
+    private static void calibrate(Target target, SortBenchmark.Distribution dist, int size, int[] cutoffs,
+            int rounds, int warmups, int iterations) {
+        String name = target.engine + ":" + target.type.name().toLowerCase();
+        Map<Integer, Double> best = new LinkedHashMap<>();
+        for (int round = 0; round < rounds; round++) {
+            for (int cutoff : cutoffs) {
+                int c = cutoff;
+                SortBenchmark.Case sortCase = new SortBenchmark.Case(name, target.type, Integer.MAX_VALUE,
+                        (Object a) -> target.sort.sort(a, c));
+                SortBenchmark.Result result = SortBenchmark.measure(sortCase, dist, size, warmups, iterations);
+                if (result.error != null) {
+                    System.out.printf("%-14s %-12s %8d %s%n", name, dist, cutoff, result.error);
+                    return;
+                }
+                best.merge(cutoff, result.nsPerElement, Math::min);
+            }
+        }
+
+        int fastest = cutoffs[0];
+        for (int cutoff : cutoffs) {
+            if (best.get(cutoff) < best.get(fastest)) {
+                fastest = cutoff;
+            }
+        }
+        for (int cutoff : cutoffs) {
+            System.out.printf("%-14s %-12s %8d %12.3f%s%n", name, dist, cutoff, best.get(cutoff),
+                    cutoff == fastest ? "  <- best" : "");
+        }
+        Double atDefault = best.get(target.defaultCutoff);
+        if (atDefault != null) {
+            System.out.printf("%-14s %-12s best cutoff %d, %.1f%% faster than the default %d%n", name, dist,
+                    fastest, 100 * (atDefault - best.get(fastest)) / atDefault, target.defaultCutoff);
+        } else {
+            System.out.printf("%-14s %-12s best cutoff %d (default %d not measured)%n", name, dist,
+                    fastest, target.defaultCutoff);
+        }
+    }
+}
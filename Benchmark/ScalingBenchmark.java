@@ -0,0 +1,188 @@
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Measures how the parallel sort engines scale with the number of worker threads.
+ *
+ * Every (engine, element type, distribution) is timed on a ForkJoinPool of each requested
+ * parallelism with the SortBenchmark measurement loop, and the table lists ns per element,
+ * the speedup over the first thread count of the same engine and the parallel efficiency
+ * relative to it (speedup times the first thread count divided by threads). The speedup
+ * column is labelled with that baseline, e.g. Speedup/1 when the counts start at one thread.
+ * Thread counts beyond the cores of the host are allowed but can only measure the
+ * scheduling overhead.
+ *
+ * Build and run from the repository root:
+ *
+ *   javac -d out Sorts/*.java MergeSort/*.java Benchmark/*.java
+ *   java -cp out ScalingBenchmark [-engines parallel-quick,parallel-sample] [-types int,long]
+ *                                 [-dists random] [-size 10000000] [-threads 1,2,4,8]
+ *                                 [-wi 3] [-i 5] [-forks 1]
+ *
+ * Every (engine, element type, distribution) is measured in its own forked JVM, as in
+ * SortBenchmark, so JIT profiles gathered for one engine cannot leak into another. The
+ * thread counts of one engine share that JVM, since they run the same compiled code.
+ * -forks 0 measures everything in this JVM, which is quicker but lets the engines
+ * measured first bias the later ones.
+ *
+ * The default thread counts are the powers of two up to the number of available processors,
+ * plus that number itself.
+ */
+public class ScalingBenchmark {
+
+    // A parallel sort engine for one element type, run on the given pool
+    interface Engine {
+        void sort(Object array, ForkJoinPool pool);
+    }
+
+    static final class Target {
+        final String engine;
+        final SortBenchmark.ElementType type;
+        final Engine sort;
+
+        Target(String engine, SortBenchmark.ElementType type, Engine sort) {
+            this.engine = engine;
+            this.type = type;
+            this.sort = sort;
+        }
+    }
+
+    static List<Target> targets() {
+        List<Target> targets = new ArrayList<>();
+        targets.add(new Target("parallel-quick", SortBenchmark.ElementType.INT, (a, pool) -> ParallelQuickSort.sort(
+                (int[]) a, 0, ((int[]) a).length, pool, ParallelQuickSort.DEFAULT_THRESHOLD)));
+        targets.add(new Target("parallel-quick", SortBenchmark.ElementType.LONG, (a, pool) -> ParallelQuickSort.sort(
+                (long[]) a, 0, ((long[]) a).length, pool, ParallelQuickSort.DEFAULT_THRESHOLD)));
+        targets.add(new Target("parallel-merge", SortBenchmark.ElementType.INT, (a, pool) -> ParallelMergeSort.sort(
+                (int[]) a, 0, ((int[]) a).length, pool, ParallelMergeSort.DEFAULT_THRESHOLD)));
+        targets.add(new Target("parallel-merge", SortBenchmark.ElementType.LONG, (a, pool) -> ParallelMergeSort.sort(
+                (long[]) a, 0, ((long[]) a).length, pool, ParallelMergeSort.DEFAULT_THRESHOLD)));
+        targets.add(new Target("parallel-sample", SortBenchmark.ElementType.INT, (a, pool) -> ParallelSampleSort.sort(
+                (int[]) a, 0, ((int[]) a).length, pool, ParallelSampleSort.DEFAULT_THRESHOLD)));
+        targets.add(new Target("parallel-sample", SortBenchmark.ElementType.LONG, (a, pool) -> ParallelSampleSort.sort(
+                (long[]) a, 0, ((long[]) a).length, pool, ParallelSampleSort.DEFAULT_THRESHOLD)));
+        return targets;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("-child")) {
+            runChild(args);
+            return;
+        }
+
+        List<String> engines = null;
+        List<String> types = null;
+        List<SortBenchmark.Distribution> dists = Arrays.asList(SortBenchmark.Distribution.RANDOM);
+        int size = 10_000_000;
+        int[] threads = defaultThreads();
+        int warmups = 3;
+        int iterations = 5;
+        int forks = 1;
+
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-engines": engines = Arrays.asList(value.split(",")); break;
+                case "-types": types = Arrays.asList(value.split(",")); break;
+                case "-dists": dists = SortBenchmark.parseDistributions(value); break;
+                case "-size": size = Integer.parseInt(value.replace("_", "")); break;
+                case "-threads": threads = SortBenchmark.parseSizes(value); break;
+                case "-wi": warmups = Integer.parseInt(value); break;
+                case "-i": iterations = Integer.parseInt(value); break;
+                case "-forks": forks = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (forks != 0 && forks != 1) {
+            throw new IllegalArgumentException("Forks must be 0 or 1: " + forks);
+        }
+
+        System.out.printf("Available processors: %d%n", Runtime.getRuntime().availableProcessors());
+        System.out.printf("%-22s %-12s %8s %12s %10s %11s%n", "Engine", "Distribution", "Threads", "ns/elem",
+                "Speedup/" + threads[0], "Efficiency");
+        for (Target target : targets()) {
+            if (engines != null && !engines.contains(target.engine)) {
+                continue;
+            }
+            if (types != null && !types.contains(target.type.name().toLowerCase())) {
+                continue;
+            }
+            for (SortBenchmark.Distribution dist : dists) {
+                if (forks == 0) {
+                    scale(target, dist, size, threads, warmups, iterations);
+                } else {
+                    fork(target, dist, size, threads, warmups, iterations);
+                }
+            }
+        }
+    }
+
+    // Measures one target at every thread count in a fresh JVM, which prints its rows
+    private static void fork(Target target, SortBenchmark.Distribution dist, int size, int[] threads,
+            int warmups, int iterations) throws IOException, InterruptedException {
+        String list = Arrays.stream(threads).mapToObj(Integer::toString).collect(Collectors.joining(","));
+        int status = SortBenchmark.runJvm(ScalingBenchmark.class, Arrays.asList("-child", target.engine,
+                target.type.name(), dist.name(), Integer.toString(size), list, Integer.toString(warmups),
+                Integer.toString(iterations)));
+        if (status != 0) {
+            System.out.printf("%-22s %-12s ERROR fork exited with %d%n",
+                    target.engine + ":" + target.type.name().toLowerCase(), dist, status);
+        }
+    }
+
+    private static void runChild(String[] args) {
+        SortBenchmark.ElementType type = SortBenchmark.ElementType.valueOf(args[2]);
+        SortBenchmark.Distribution dist = SortBenchmark.Distribution.valueOf(args[3]);
+        int size = Integer.parseInt(args[4]);
+        int[] threads = SortBenchmark.parseSizes(args[5]);
+        int warmups = Integer.parseInt(args[6]);
+        int iterations = Integer.parseInt(args[7]);
+        for (Target target : targets()) {
+            if (target.engine.equals(args[1]) && target.type == type) {
+                scale(target, dist, size, threads, warmups, iterations);
+            }
+        }
+    }
+
+    private static void scale(Target target, SortBenchmark.Distribution dist, int size, int[] threads,
+            int warmups, int iterations) {
+        String name = target.engine + ":" + target.type.name().toLowerCase();
+        // The first thread count is the baseline of the speedup and efficiency columns
+        double baseline = Double.NaN;
+        for (int parallelism : threads) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                SortBenchmark.Case sortCase = new SortBenchmark.Case(name, target.type, Integer.MAX_VALUE,
+                        (Object a) -> target.sort.sort(a, pool));
+                SortBenchmark.Result result = SortBenchmark.measure(sortCase, dist, size, warmups, iterations);
+                if (result.error != null) {
+                    System.out.printf("%-22s %-12s %8d %s%n", name, dist, parallelism, result.error);
+                    return;
+                }
+                if (Double.isNaN(baseline)) {
+                    baseline = result.nsPerElement;
+                }
+                double speedup = baseline / result.nsPerElement;
+                System.out.printf("%-22s %-12s %8d %12.3f %9.2fx %10.0f%%%n", name, dist, parallelism,
+                        result.nsPerElement, speedup, 100 * speedup * threads[0] / parallelism);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static int[] defaultThreads() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        TreeSet<Integer> counts = new TreeSet<>();
+        for (int p = 1; p <= cores; p *= 2) {
+            counts.add(p);
+        }
+        counts.add(cores);
+        return counts.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,533 @@
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Benchmark harness for the sorts in Sorts/ and MergeSort/.
+ *
+ * Every (algorithm, element type, distribution, size) combination is measured in its own
+ * forked JVM, so JIT profiles gathered for one algorithm cannot leak into another. Inside
+ * the fork the sort is warmed up and then timed over several measurement iterations. Each
+ * iteration sorts a batch of fresh copies of the same input, so that tiny inputs are not
+ * dominated by timer resolution; copying happens outside the timed region. The sorted
+ * arrays are checked once and folded into a volatile sink so the JIT cannot discard the work.
+ *
+ * Build and run from the repository root:
+ *
+ *   javac -d out Sorts/*.java MergeSort/*.java Benchmark/*.java
+ *   java -cp out SortBenchmark [-algs merge,intro] [-types int,long,double,float,object,boxed]
+ *                              [-dists random,sorted] [-sizes 10,1000,100000]
+ *                              [-wi 3] [-i 5] [-forks 1]
+ *
+ * The "vector" cases run the SIMD kernels only when Vector/ is compiled as well and the JVM
+ * has the incubator module; otherwise they measure the scalar fallback:
+ *
+ *   javac --add-modules jdk.incubator.vector -cp out -d out Vector/*.java
+ *   java --add-modules jdk.incubator.vector -cp out SortBenchmark -algs intro,vector,scalar
+ *
+ * JVM flags given to the parent (e.g. -Xmx4g) are passed on to every fork. Results are
+ * reported as ns per element (mean and standard deviation over the measurement iterations)
+ * and as the allocation of the sorting thread, in bytes per sort and MB per second.
+ */
+public class SortBenchmark {
+
+    // Largest input handed to the O(n^2) sorts; beyond this a single sort takes minutes
+    static final int QUADRATIC_LIMIT = 100_000;
+
+    // Elements sorted per timed batch, so small sizes are sorted many times per iteration
+    static final int BATCH_ELEMENTS = 1 << 20;
+
+    static final long SEED = 42;
+
+    static final int[] DEFAULT_SIZES = {10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000};
+
+    private static volatile long sink;
+
+    // Shape of the generated input, produced by WorkloadGenerator
+    enum Distribution {
+        RANDOM(WorkloadGenerator.uniform()),
+        SORTED(WorkloadGenerator.sorted()),
+        REVERSED(WorkloadGenerator.reversed()),
+        FEW_UNIQUE(WorkloadGenerator.uniform(16)),
+        ORGAN_PIPE(WorkloadGenerator.organPipe()),
+        ZIPF(WorkloadGenerator.zipf(1 << 16, 1.0)),
+        NEARLY_SORTED(WorkloadGenerator.nearlySorted(1.0)),
+        SAWTOOTH(WorkloadGenerator.sawtooth(1 << 10)),
+        ALL_EQUAL(WorkloadGenerator.allEqual(0)),
+        // Musser's median-of-3 killer
+        KILLER(WorkloadGenerator.medianOfThreeKiller());
+
+        private final WorkloadGenerator generator;
+
+        Distribution(WorkloadGenerator generator) {
+            this.generator = generator;
+        }
+
+        int[] ints(int n, long seed) {
+            return generator.ints(n, seed);
+        }
+    }
+
+    // Element type an algorithm consumes. Inputs are generated as int[] and converted
+    // outside the timed region.
+    enum ElementType {
+        INT {
+            Object copyOf(int[] source) {
+                return source.clone();
+            }
+
+            boolean isSorted(Object work) {
+                int[] a = (int[]) work;
+                for (int i = 1; i < a.length; i++) {
+                    if (a[i - 1] > a[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            long checksum(Object work) {
+                int[] a = (int[]) work;
+                return a.length == 0 ? 0 : a[0] ^ a[a.length / 2] ^ a[a.length - 1];
+            }
+        },
+        LONG {
+            Object copyOf(int[] source) {
+                long[] a = new long[source.length];
+                for (int i = 0; i < source.length; i++) {
+                    a[i] = source[i];
+                }
+                return a;
+            }
+
+            boolean isSorted(Object work) {
+                long[] a = (long[]) work;
+                for (int i = 1; i < a.length; i++) {
+                    if (a[i - 1] > a[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            long checksum(Object work) {
+                long[] a = (long[]) work;
+                return a.length == 0 ? 0 : a[0] ^ a[a.length / 2] ^ a[a.length - 1];
+            }
+        },
+        DOUBLE {
+            Object copyOf(int[] source) {
+                double[] a = new double[source.length];
+                for (int i = 0; i < source.length; i++) {
+                    a[i] = source[i] * 0.5;
+                }
+                return a;
+            }
+
+            boolean isSorted(Object work) {
+                double[] a = (double[]) work;
+                for (int i = 1; i < a.length; i++) {
+                    if (Double.compare(a[i - 1], a[i]) > 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            long checksum(Object work) {
+                double[] a = (double[]) work;
+                return a.length == 0 ? 0 : Double.doubleToLongBits(a[0]) ^ Double.doubleToLongBits(a[a.length - 1]);
+            }
+        },
+        FLOAT {
+            Object copyOf(int[] source) {
+                float[] a = new float[source.length];
+                for (int i = 0; i < source.length; i++) {
+                    a[i] = source[i] * 0.5f;
+                }
+                return a;
+            }
+
+            boolean isSorted(Object work) {
+                float[] a = (float[]) work;
+                for (int i = 1; i < a.length; i++) {
+                    if (Float.compare(a[i - 1], a[i]) > 0) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            long checksum(Object work) {
+                float[] a = (float[]) work;
+                return a.length == 0 ? 0 : Float.floatToIntBits(a[0]) ^ Float.floatToIntBits(a[a.length - 1]);
+            }
+        },
+        OBJECT {
+            Object copyOf(int[] source) {
+                Integer[] a = new Integer[source.length];
+                for (int i = 0; i < source.length; i++) {
+                    a[i] = source[i];
+                }
+                return a;
+            }
+
+            boolean isSorted(Object work) {
+                Integer[] a = (Integer[]) work;
+                for (int i = 1; i < a.length; i++) {
+                    if (a[i - 1] > a[i]) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            long checksum(Object work) {
+                Integer[] a = (Integer[]) work;
+                return a.length == 0 ? 0 : a[0] ^ a[a.length / 2] ^ a[a.length - 1];
+            }
+        },
+        BOXED {
+            Object copyOf(int[] source) {
+                ArrayList<Integer> list = new ArrayList<>(source.length);
+                for (int value : source) {
+                    list.add(value);
+                }
+                return list;
+            }
+
+            @SuppressWarnings("unchecked")
+            boolean isSorted(Object work) {
+                List<Integer> list = (List<Integer>) work;
+                for (int i = 1; i < list.size(); i++) {
+                    if (list.get(i - 1) > list.get(i)) {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @SuppressWarnings("unchecked")
+            long checksum(Object work) {
+                List<Integer> list = (List<Integer>) work;
+                int n = list.size();
+                return n == 0 ? 0 : list.get(0) ^ list.get(n / 2) ^ list.get(n - 1);
+            }
+        };
+
+        abstract Object copyOf(int[] source);
+
+        abstract boolean isSorted(Object work);
+
+        abstract long checksum(Object work);
+    }
+
+    // One benchmarked algorithm for one element type
+    static final class Case {
+        final String name;
+        final ElementType type;
+        final int maxSize;
+        final Consumer<Object> sort;
+
+        @SuppressWarnings("unchecked")
+        <T> Case(String name, ElementType type, int maxSize, Consumer<T> sort) {
+            this.name = name;
+            this.type = type;
+            this.maxSize = maxSize;
+            this.sort = (Consumer<Object>) sort;
+        }
+
+        String key() {
+            return name + ":" + type.name().toLowerCase();
+        }
+    }
+
+    static final Map<String, Case> CASES = new LinkedHashMap<>();
+
+    static {
+        register(new Case("selection", ElementType.INT, QUADRATIC_LIMIT, (int[] a) -> SelectionSort.selectionSort(a)));
+        register(new Case("insertion", ElementType.INT, QUADRATIC_LIMIT, (int[] a) -> InsertionSort.insertionSort(a)));
+        register(new Case("merge", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> MergeSort.sort(a)));
+        register(new Case("merge-pingpong", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> MergeSort.sort(a, MergeSort.Mode.PING_PONG)));
+        register(new Case("quick-rightmost", ElementType.INT, QUADRATIC_LIMIT, (int[] a) -> QuickSort.rightmostPivotSort(a)));
+        register(new Case("intro", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> QuickSort.introSort(a)));
+        register(new Case("intro-3way", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> QuickSort.sort(a, QuickSort.Partition.THREE_WAY)));
+        register(new Case("intro-dual", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> QuickSort.sort(a, QuickSort.Partition.DUAL_PIVOT)));
+        register(new Case("radix", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> RadixSort.sort(a)));
+        register(new Case("adaptive-merge", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> AdaptiveMergeSort.sort(a)));
+        register(new Case("dispatch", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> SortDispatcher.sort(a)));
+        register(new Case("parallel-merge", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> ParallelMergeSort.sort(a)));
+        register(new Case("parallel-quick", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> ParallelQuickSort.sort(a)));
+        register(new Case("parallel-sample", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> ParallelSampleSort.sort(a)));
+        register(new Case("merge", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> MergeSort.sort(a)));
+        register(new Case("merge-pingpong", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> MergeSort.sort(a, MergeSort.Mode.PING_PONG)));
+        register(new Case("radix", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> RadixSort.sort(a)));
+        register(new Case("parallel-merge", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> ParallelMergeSort.sort(a)));
+        register(new Case("parallel-quick", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> ParallelQuickSort.sort(a)));
+        register(new Case("parallel-sample", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> ParallelSampleSort.sort(a)));
+        register(new Case("primitive-merge", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> PrimitiveSorts.mergeSort(a)));
+        register(new Case("primitive-quick", ElementType.LONG, Integer.MAX_VALUE, (long[] a) -> PrimitiveSorts.quickSort(a)));
+        register(new Case("primitive-insertion", ElementType.DOUBLE, QUADRATIC_LIMIT, (double[] a) -> PrimitiveSorts.insertionSort(a)));
+        register(new Case("primitive-merge", ElementType.DOUBLE, Integer.MAX_VALUE, (double[] a) -> PrimitiveSorts.mergeSort(a)));
+        register(new Case("primitive-quick", ElementType.DOUBLE, Integer.MAX_VALUE, (double[] a) -> PrimitiveSorts.quickSort(a)));
+        register(new Case("primitive-merge", ElementType.FLOAT, Integer.MAX_VALUE, (float[] a) -> PrimitiveSorts.mergeSort(a)));
+        register(new Case("primitive-quick", ElementType.FLOAT, Integer.MAX_VALUE, (float[] a) -> PrimitiveSorts.quickSort(a)));
+        register(new Case("vector", ElementType.INT, Integer.MAX_VALUE, (int[] a) -> VectorSort.sort(a)));
+        register(new Case("vector", ElementType.FLOAT, Integer.MAX_VALUE, (float[] a) -> VectorSort.sort(a)));
+        register(new Case("scalar", ElementType.FLOAT, Integer.MAX_VALUE, (float[] a) -> VectorSort.sortScalar(a)));
+        register(new Case("selection", ElementType.BOXED, QUADRATIC_LIMIT, (ArrayList<Integer> a) -> ArrayList_Sel_Ins.selectionSort(a)));
+        register(new Case("insertion", ElementType.BOXED, QUADRATIC_LIMIT, (ArrayList<Integer> a) -> ArrayList_Sel_Ins.insertionSort(a)));
+        register(new Case("bulk", ElementType.BOXED, Integer.MAX_VALUE, (ArrayList<Integer> a) -> ArrayList_Sel_Ins.sort(a)));
+    }
+
+    // Every engine in the Sorters registry, for each element type the interface accepts
+    static {
+        for (String name : Sorters.names()) {
+            Sorter<Integer> sorter = Sorters.get(name);
+            int maxSize = name.equals("selection") || name.equals("insertion") ? QUADRATIC_LIMIT : Integer.MAX_VALUE;
+            register(new Case("sorter-" + name, ElementType.INT, maxSize, (int[] a) -> sorter.sort(a)));
+            register(new Case("sorter-" + name, ElementType.LONG, maxSize, (long[] a) -> sorter.sort(a)));
+            register(new Case("sorter-" + name, ElementType.DOUBLE, maxSize, (double[] a) -> sorter.sort(a)));
+            register(new Case("sorter-" + name, ElementType.OBJECT, maxSize, (Integer[] a) -> sorter.sort(a, Comparator.naturalOrder())));
+        }
+    }
+
+    static void register(Case c) {
+        CASES.put(c.key(), c);
+    }
+
+    // Outcome of one fork
+    static final class Result {
+        double nsPerElement;
+        double nsPerElementError;
+        double bytesPerOp;
+        double mbPerSecond;
+        String error;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("-child")) {
+            runChild(args);
+            return;
+        }
+
+        List<String> algs = null;
+        List<String> types = null;
+        List<Distribution> dists = Arrays.asList(Distribution.values());
+        int[] sizes = DEFAULT_SIZES;
+        int warmups = 3;
+        int iterations = 5;
+        int forks = 1;
+
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-algs": algs = Arrays.asList(value.split(",")); break;
+                case "-types": types = Arrays.asList(value.split(",")); break;
+                case "-dists": dists = parseDistributions(value); break;
+                case "-sizes": sizes = parseSizes(value); break;
+                case "-wi": warmups = Integer.parseInt(value); break;
+                case "-i": iterations = Integer.parseInt(value); break;
+                case "-forks": forks = Integer.parseInt(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        System.out.printf("%-22s %-12s %10s %12s %10s %14s %10s%n",
+                "Benchmark", "Distribution", "Size", "ns/elem", "error", "B/op", "MB/s");
+        for (Case c : CASES.values()) {
+            if (algs != null && !algs.contains(c.name)) {
+                continue;
+            }
+            if (types != null && !types.contains(c.type.name().toLowerCase())) {
+                continue;
+            }
+            for (Distribution dist : dists) {
+                for (int size : sizes) {
+                    if (size > c.maxSize) {
+                        continue;
+                    }
+                    Result result = forks == 0
+                            ? measure(c, dist, size, warmups, iterations)
+                            : fork(c, dist, size, warmups, iterations, forks);
+                    print(c, dist, size, result);
+                }
+            }
+        }
+    }
+
+    private static void print(Case c, Distribution dist, int size, Result result) {
+        if (result.error != null) {
+            System.out.printf("%-22s %-12s %10d %s%n", c.key(), dist, size, result.error);
+        } else {
+            System.out.printf("%-22s %-12s %10d %12.3f %10.3f %14.1f %10.1f%n", c.key(), dist, size,
+                    result.nsPerElement, result.nsPerElementError, result.bytesPerOp, result.mbPerSecond);
+        }
+    }
+
+    // Runs the measurement in fresh JVMs and averages their results
+    private static Result fork(Case c, Distribution dist, int size, int warmups, int iterations, int forks)
+            throws IOException, InterruptedException {
+        Result total = new Result();
+        for (int f = 0; f < forks; f++) {
+            Process process = startJvm(SortBenchmark.class, Arrays.asList("-child", c.key(), dist.name(),
+                    Integer.toString(size), Integer.toString(warmups), Integer.toString(iterations)));
+            String last = null;
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (line.startsWith("RESULT ") || line.startsWith("ERROR ")) {
+                        last = line;
+                    }
+                }
+            }
+            process.waitFor();
+
+            if (last == null || last.startsWith("ERROR ")) {
+                total.error = last == null ? "ERROR fork exited with " + process.exitValue() : last;
+                return total;
+            }
+            String[] fields = last.split(" ");
+            total.nsPerElement += Double.parseDouble(fields[1]) / forks;
+            total.nsPerElementError += Double.parseDouble(fields[2]) / forks;
+            total.bytesPerOp += Double.parseDouble(fields[3]) / forks;
+            total.mbPerSecond += Double.parseDouble(fields[4]) / forks;
+        }
+        return total;
+    }
+
+    // Starts a JVM with the flags and class path of this one, running mainClass with args
+    static Process startJvm(Class<?> mainClass, List<String> args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass.getName());
+        command.addAll(args);
+        return new ProcessBuilder(command).redirectErrorStream(true).start();
+    }
+
+    // Runs mainClass with args in a fresh JVM, copies its output to ours and returns its exit
+    // status. CutoffCalibration and ScalingBenchmark measure each engine this way.
+    static int runJvm(Class<?> mainClass, List<String> args) throws IOException, InterruptedException {
+        Process process = startJvm(mainClass, args);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getInputStream()))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                System.out.println(line);
+            }
+        }
+        return process.waitFor();
+    }
+
+    private static void runChild(String[] args) {
+        Case c = CASES.get(args[1]);
+        Distribution dist = Distribution.valueOf(args[2]);
+        int size = Integer.parseInt(args[3]);
+        int warmups = Integer.parseInt(args[4]);
+        int iterations = Integer.parseInt(args[5]);
+
+        Result result = measure(c, dist, size, warmups, iterations);
+        if (result.error != null) {
+            System.out.println(result.error);
+        } else {
+            System.out.println("RESULT " + result.nsPerElement + " " + result.nsPerElementError + " "
+                    + result.bytesPerOp + " " + result.mbPerSecond);
+        }
+    }
+
+    static Result measure(Case c, Distribution dist, int size, int warmups, int iterations) {
+        Result result = new Result();
+        int[] input = dist.ints(size, SEED);
+        int batch = Math.max(1, BATCH_ELEMENTS / Math.max(1, size));
+        Object[] work = new Object[batch];
+        double[] samples = new double[iterations];
+        long totalBytes = 0;
+        long totalNanos = 0;
+
+        try {
+            for (int iteration = -warmups; iteration < iterations; iteration++) {
+                for (int k = 0; k < batch; k++) {
+                    work[k] = c.type.copyOf(input);
+                }
+
+                long bytesBefore = allocatedBytes();
+                long start = System.nanoTime();
+                for (int k = 0; k < batch; k++) {
+                    c.sort.accept(work[k]);
+                }
+                long elapsed = System.nanoTime() - start;
+                long bytes = allocatedBytes() - bytesBefore;
+
+                if (iteration == -warmups && !c.type.isSorted(work[0])) {
+                    result.error = "ERROR output not sorted";
+                    return result;
+                }
+                for (int k = 0; k < batch; k++) {
+                    sink ^= c.type.checksum(work[k]);
+                }
+
+                if (iteration >= 0) {
+                    samples[iteration] = (double) elapsed / ((long) batch * Math.max(1, size));
+                    totalBytes += bytes;
+                    totalNanos += elapsed;
+                }
+            }
+        } catch (Throwable t) {
+            result.error = "ERROR " + t.getClass().getSimpleName();
+            return result;
+        }
+
+        double mean = 0;
+        for (double sample : samples) {
+            mean += sample / iterations;
+        }
+        double variance = 0;
+        for (double sample : samples) {
+            variance += (sample - mean) * (sample - mean);
+        }
+        result.nsPerElement = mean;
+        result.nsPerElementError = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+        result.bytesPerOp = (double) totalBytes / ((long) batch * iterations);
+        result.mbPerSecond = totalNanos == 0 ? 0 : totalBytes / 1e6 / (totalNanos / 1e9);
+        return result;
+    }
+
+    // Bytes allocated so far by the current thread, or 0 when the JVM cannot tell
+    static long allocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) bean).getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return 0;
+    }
+
+    // Comma-separated distribution names, case-insensitive and with - for _
+    static List<Distribution> parseDistributions(String value) {
+        List<Distribution> dists = new ArrayList<>();
+        for (String name : value.split(",")) {
+            dists.add(Distribution.valueOf(name.toUpperCase().replace('-', '_')));
+        }
+        return dists;
+    }
+
+    // Comma-separated sizes or counts, with _ allowed as a digit separator
+    static int[] parseSizes(String value) {
+        String[] parts = value.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            sizes[i] = Integer.parseInt(parts[i].replace("_", ""));
+        }
+        return sizes;
+    }
+}
@@ -0,0 +1,1086 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Randomized check of the sort engines against Arrays.sort.
+ *
+ * Every check runs a number of trials. Each trial draws an input shape (one of
+ * WorkloadGenerator's random, few unique, all equal, sorted, reversed, organ pipe, sawtooth
+ * and median-of-3 killer shapes, or only extreme values such as MIN_VALUE and MAX_VALUE), a
+ * size and a sub-range [from, to), and sorts a copy of the input both with the engine and
+ * with Arrays.sort. The whole arrays must then be equal, so keys outside the sub-range must
+ * not have moved either. The argsort and mergeSortBy checks compare with a stable
+ * Arrays.sort of indices or objects, so they also catch equal keys that changed order.
+ * ExternalSort sorts whole files instead, with a small chunk and fan-in so that its merges
+ * take several passes. OffHeapSort sorts the keys in heap and direct buffers of either byte
+ * order. Parallel engines run on a pool of PARALLELISM workers with a random small
+ * threshold, so that even small inputs take the parallel paths.
+ *
+ * The trials derive from one seed, so a failure can be repeated. The first mismatch is
+ * printed with its trial and seed, and the checker exits with status 1.
+ *
+ * Build and run from the repository root:
+ *
+ *   javac -d out Sorts/*.java MergeSort/*.java Benchmark/*.java
+ *   java -cp out SortChecker [-checks parallel-merge,parallel-quick,parallel-sample,argsort,
+ *                                     merge-sort-by,external,off-heap,vector,dispatch,radix,
+ *                                     adaptive-merge,select] [-trials 200] [-seed 1]
+ *
+ * The vector check runs VectorSort's SIMD kernels only when Vector/ is compiled too and the
+ * JVM resolves the incubator module, and then fails if VectorSort falls back to QuickSort.
+ * Without the module it checks the scalar fallback:
+ *
+ *   javac --add-modules jdk.incubator.vector -cp out -d out Vector/*.java
+ *   java --add-modules jdk.incubator.vector -cp out SortChecker -checks vector
+ */
+public class SortChecker {
+
+    // Workers of the pool the parallel engines run on, whatever the cores of the host
+    static final int PARALLELISM = 4;
+
+    // Largest input of an ordinary trial
+    static final int MAX_SIZE = 20_000;
+
+    // Largest input of the trials that must reach ParallelQuickSort's block partition or
+    // split ParallelSampleSort's input into many stripes and buckets
+    static final int LARGE_SIZE = 4 * ParallelQuickSort.MIN_BLOCK_PARTITION;
+
+    // Int lanes of the 256-bit vectors in Vector/VectorSortKernels; the kernels switch from
+    // the sorting network to the partition above 2 * VECTOR_LANES keys and partition ranges
+    // below 3 * VECTOR_LANES without vectors
+    static final int VECTOR_LANES = 8;
+
+    private static final Map<String, Check> CHECKS = new LinkedHashMap<>();
+
+    private static final ForkJoinPool POOL = new ForkJoinPool(PARALLELISM);
+
+    // Shape of a generated input: a WorkloadGenerator shape, or only extreme values
+    enum Shape {
+        RANDOM(WorkloadGenerator.uniform()),
+        FEW_UNIQUE(WorkloadGenerator.uniform(4)),
+        ALL_EQUAL(WorkloadGenerator.allEqual(-7)),
+        SORTED(WorkloadGenerator.sorted()),
+        REVERSED(WorkloadGenerator.reversed()),
+        ORGAN_PIPE(WorkloadGenerator.organPipe()),
+        SAWTOOTH(WorkloadGenerator.sawtooth(17)),
+        KILLER(WorkloadGenerator.medianOfThreeKiller()),
+        EXTREMES(null);
+
+        // Null for EXTREMES, which WorkloadGenerator has no shape for
+        final WorkloadGenerator generator;
+
+        Shape(WorkloadGenerator generator) {
+            this.generator = generator;
+        }
+    }
+
+    // One trial of a check; throws CheckFailure when the engine gets it wrong
+    interface Check {
+        void run(SplittableRandom random) throws Exception;
+    }
+
+    static final class CheckFailure extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        CheckFailure(String message) {
+            super(message);
+        }
+    }
+
+    static {
+        register("parallel-merge", random -> {
+            int threshold = random.nextInt(2, 256);
+            checkInts(random, "threshold " + threshold,
+                    (a, from, to) -> ParallelMergeSort.sort(a, from, to, POOL, threshold));
+            checkLongs(random, "threshold " + threshold,
+                    (a, from, to) -> ParallelMergeSort.sort(a, from, to, POOL, threshold));
+        });
+        register("parallel-quick", random -> {
+            int threshold = random.nextInt(2, 256);
+            // One trial in eight is large enough to be partitioned by blocks
+            int maxSize = random.nextInt(8) == 0 ? LARGE_SIZE : MAX_SIZE;
+            checkInts(random, maxSize, "threshold " + threshold,
+                    (a, from, to) -> ParallelQuickSort.sort(a, from, to, POOL, threshold));
+            checkLongs(random, maxSize, "threshold " + threshold,
+                    (a, from, to) -> ParallelQuickSort.sort(a, from, to, POOL, threshold));
+            checkPartitionBlock(random);
+        });
+        register("parallel-sample", random -> {
+            int threshold = random.nextInt(2, 256);
+            // Stripes and buckets only multiply from a few MIN_PART keys each on, so one trial
+            // in four is large
+            int maxSize = random.nextInt(4) == 0 ? LARGE_SIZE : MAX_SIZE;
+            checkInts(random, maxSize, "threshold " + threshold,
+                    (a, from, to) -> ParallelSampleSort.sort(a, from, to, POOL, threshold));
+            checkLongs(random, maxSize, "threshold " + threshold,
+                    (a, from, to) -> ParallelSampleSort.sort(a, from, to, POOL, threshold));
+        });
+        register("argsort", SortChecker::checkArgsorts);
+        register("merge-sort-by", SortChecker::checkMergeSortBy);
+        register("external", random -> {
+            checkExternal(random, ExternalSort.KeyType.INT);
+            checkExternal(random, ExternalSort.KeyType.LONG);
+        });
+        register("off-heap", SortChecker::checkOffHeap);
+        register("vector", SortChecker::checkVector);
+        register("dispatch", SortChecker::checkDispatch);
+        register("radix", SortChecker::checkRadix);
+        register("adaptive-merge", SortChecker::checkAdaptiveMerge);
+        register("select", SortChecker::checkSelect);
+    }
+
+    static void register(String name, Check check) {
+        CHECKS.put(name, check);
+    }
+
+    public static void main(String[] args) {
+        List<String> names = null;
+        int trials = 200;
+        long seed = 1;
+        for (int i = 0; i < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "-checks": names = Arrays.asList(value.split(",")); break;
+                case "-trials": trials = Integer.parseInt(value); break;
+                case "-seed": seed = Long.parseLong(value); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (names != null) {
+            for (String name : names) {
+                if (!CHECKS.containsKey(name)) {
+                    throw new IllegalArgumentException("Unknown check " + name + ", expected one of " + CHECKS.keySet());
+                }
+            }
+        }
+
+        boolean failed = false;
+        for (Map.Entry<String, Check> entry : CHECKS.entrySet()) {
+            if (names != null && !names.contains(entry.getKey())) {
+                continue;
+            }
+            SplittableRandom random = new SplittableRandom(seed);
+            long start = System.nanoTime();
+            int trial = 0;
+            try {
+                for (; trial < trials; trial++) {
+                    entry.getValue().run(random.split());
+                }
+                System.out.printf("%-18s %6d trials ok %8d ms%n", entry.getKey(), trials,
+                        (System.nanoTime() - start) / 1_000_000);
+            } catch (Exception e) {
+                String reason = e instanceof CheckFailure ? e.getMessage() : e.toString();
+                System.out.printf("%-18s FAILED in trial %d (seed %d): %s%n", entry.getKey(), trial, seed, reason);
+                failed = true;
+            }
+        }
+        POOL.shutdown();
+        if (failed) {
+            System.exit(1);
+        }
+    }
+
+    // Sorts a[from..to)
+    interface IntRangeSort {
+        void sort(int[] a, int from, int to) throws Exception;
+    }
+
+    interface LongRangeSort {
+        void sort(long[] a, int from, int to) throws Exception;
+    }
+
+    interface FloatRangeSort {
+        void sort(float[] a, int from, int to) throws Exception;
+    }
+
+    // Sorts a random sub-range of a random input with the engine and with Arrays.sort
+    static void checkInts(SplittableRandom random, String config, IntRangeSort engine) throws Exception {
+        checkInts(random, MAX_SIZE, config, engine);
+    }
+
+    static void checkInts(SplittableRandom random, int maxSize, String config, IntRangeSort engine) throws Exception {
+        Shape shape = shape(random);
+        int[] input = ints(random, shape, size(random, maxSize));
+        int from = random.nextInt(0, input.length + 1);
+        int to = random.nextInt(from, input.length + 1);
+        checkInts(input, from, to, shape + " " + config, engine);
+    }
+
+    // Sorts input[from..to) with the engine and with Arrays.sort
+    static void checkInts(int[] input, int from, int to, String config, IntRangeSort engine) throws Exception {
+        int[] actual = input.clone();
+        engine.sort(actual, from, to);
+        int[] expected = input.clone();
+        Arrays.sort(expected, from, to);
+        if (!Arrays.equals(actual, expected)) {
+            throw new CheckFailure("int n=" + input.length + " [" + from + ", " + to + ") " + config
+                    + ": first difference at " + Arrays.mismatch(actual, expected));
+        }
+    }
+
+    static void checkLongs(SplittableRandom random, String config, LongRangeSort engine) throws Exception {
+        checkLongs(random, MAX_SIZE, config, engine);
+    }
+
+    static void checkLongs(SplittableRandom random, int maxSize, String config, LongRangeSort engine) throws Exception {
+        Shape shape = shape(random);
+        long[] input = longs(random, shape, size(random, maxSize));
+        int from = random.nextInt(0, input.length + 1);
+        int to = random.nextInt(from, input.length + 1);
+        checkLongs(input, from, to, shape + " " + config, engine);
+    }
+
+    static void checkLongs(long[] input, int from, int to, String config, LongRangeSort engine) throws Exception {
+        long[] actual = input.clone();
+        engine.sort(actual, from, to);
+        long[] expected = input.clone();
+        Arrays.sort(expected, from, to);
+        if (!Arrays.equals(actual, expected)) {
+            throw new CheckFailure("long n=" + input.length + " [" + from + ", " + to + ") " + config
+                    + ": first difference at " + Arrays.mismatch(actual, expected));
+        }
+    }
+
+    // An item with one key of every kind the mergeSortBy methods take. Items never compare
+    // equal, so an array comparison also checks that equal keys kept their order.
+    static final class Item {
+        final int intKey;
+        final long longKey;
+        final double doubleKey;
+        final String stringKey;
+
+        Item(int intKey, long longKey, double doubleKey, String stringKey) {
+            this.intKey = intKey;
+            this.longKey = longKey;
+            this.doubleKey = doubleKey;
+            this.stringKey = stringKey;
+        }
+    }
+
+    // MergeSort's argsorts must return the stable sorting permutation, the one a stable
+    // Arrays.sort of the indices by key gives
+    static void checkArgsorts(SplittableRandom random) {
+        Shape shape = shape(random);
+        int n = size(random, MAX_SIZE);
+        int[] ints = ints(random, shape, n);
+        long[] longs = longs(random, shape, n);
+        String[] strings = new String[n];
+        for (int i = 0; i < n; i++) {
+            strings[i] = Integer.toString(ints[i] & 0xFF, 16);
+        }
+        String config = shape + " n=" + n;
+        comparePermutations("argsort(int[]) " + config, MergeSort.argsort(ints),
+                stableOrder(n, Comparator.comparingInt(i -> ints[i])));
+        comparePermutations("argsort(long[]) " + config, MergeSort.argsort(longs),
+                stableOrder(n, Comparator.comparingLong(i -> longs[i])));
+        comparePermutations("argsort(String[], reverse) " + config, MergeSort.argsort(strings, Comparator.reverseOrder()),
+                stableOrder(n, Comparator.comparing((Integer i) -> strings[i], Comparator.reverseOrder())));
+    }
+
+    private static int[] stableOrder(int n, Comparator<Integer> byKey) {
+        Integer[] order = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, byKey);
+        return Arrays.stream(order).mapToInt(Integer::intValue).toArray();
+    }
+
+    private static void comparePermutations(String config, int[] actual, int[] expected) {
+        if (!Arrays.equals(actual, expected)) {
+            throw new CheckFailure(config + ": first difference at " + Arrays.mismatch(actual, expected));
+        }
+    }
+
+    // Every ObjectSorts.mergeSortBy method on a random sub-range must match a stable
+    // Arrays.sort by the same key
+    static void checkMergeSortBy(SplittableRandom random) {
+        Shape shape = shape(random);
+        int n = size(random, MAX_SIZE);
+        int[] ints = ints(random, shape, n);
+        long[] longs = longs(random, shape, n);
+        double[] specials = {Double.NaN, Double.NEGATIVE_INFINITY, -1.5, -0.0, 0.0, Double.MIN_VALUE, 1.5,
+                Double.POSITIVE_INFINITY};
+        Item[] input = new Item[n];
+        for (int i = 0; i < n; i++) {
+            double doubleKey = shape == Shape.EXTREMES ? specials[random.nextInt(specials.length)] : ints[i] / 4.0;
+            input[i] = new Item(ints[i], longs[i], doubleKey, Integer.toString(ints[i] & 0xFF, 16));
+        }
+        int from = random.nextInt(0, n + 1);
+        int to = random.nextInt(from, n + 1);
+        String config = shape + " n=" + n + " [" + from + ", " + to + ")";
+
+        compareItems("mergeSortByInt " + config, input, from, to, Comparator.comparingInt(item -> item.intKey),
+                a -> ObjectSorts.mergeSortByInt(a, from, to, item -> item.intKey));
+        compareItems("mergeSortByLong " + config, input, from, to, Comparator.comparingLong(item -> item.longKey),
+                a -> ObjectSorts.mergeSortByLong(a, from, to, item -> item.longKey));
+        compareItems("mergeSortByDouble " + config, input, from, to, Comparator.comparingDouble(item -> item.doubleKey),
+                a -> ObjectSorts.mergeSortByDouble(a, from, to, item -> item.doubleKey));
+        compareItems("mergeSortBy " + config, input, from, to, Comparator.comparing(item -> item.stringKey),
+                a -> ObjectSorts.mergeSortBy(a, from, to, item -> item.stringKey));
+        compareItems("mergeSortBy(reverse) " + config, input, from, to,
+                Comparator.comparing(item -> item.stringKey, Comparator.reverseOrder()),
+                a -> ObjectSorts.mergeSortBy(a, from, to, item -> item.stringKey, Comparator.reverseOrder()));
+    }
+
+    private static void compareItems(String config, Item[] input, int from, int to, Comparator<Item> byKey,
+            Consumer<Item[]> engine) {
+        Item[] actual = input.clone();
+        engine.accept(actual);
+        Item[] expected = input.clone();
+        Arrays.sort(expected, from, to, byKey);
+        if (!Arrays.equals(actual, expected)) {
+            throw new CheckFailure(config + ": first difference at " + Arrays.mismatch(actual, expected));
+        }
+    }
+
+    // Partitions a random sub-range around a random bound with ParallelQuickSort.partitionBlock:
+    // the keys below the bound must come first, no key may be lost, and keys outside the range
+    // must not move
+    static void checkPartitionBlock(SplittableRandom random) {
+        Shape shape = shape(random);
+        int[] input = ints(random, shape, size(random, MAX_SIZE));
+        long[] longInput = longs(random, shape, input.length);
+        int from = random.nextInt(0, input.length + 1);
+        int to = random.nextInt(from, input.length + 1);
+        int bound = from < to && random.nextBoolean() ? input[random.nextInt(from, to)] : random.nextInt();
+        long longBound = from < to && random.nextBoolean() ? longInput[random.nextInt(from, to)] : random.nextLong();
+        String config = shape + " n=" + input.length + " [" + from + ", " + to + ")";
+
+        int[] a = input.clone();
+        int split = ParallelQuickSort.partitionBlock(a, from, to, bound);
+        long[] l = longInput.clone();
+        int longSplit = ParallelQuickSort.partitionBlock(l, from, to, longBound);
+        for (int i = from; i < to; i++) {
+            if ((a[i] < bound) != (i < split) || (l[i] < longBound) != (i < longSplit)) {
+                throw new CheckFailure("partitionBlock " + config + ": key at " + i + " on the wrong side");
+            }
+        }
+        Arrays.sort(a, from, to);
+        Arrays.sort(l, from, to);
+        int[] expected = input.clone();
+        Arrays.sort(expected, from, to);
+        long[] longExpected = longInput.clone();
+        Arrays.sort(longExpected, from, to);
+        if (!Arrays.equals(a, expected) || !Arrays.equals(l, longExpected)) {
+            throw new CheckFailure("partitionBlock " + config + ": keys lost or moved outside the range");
+        }
+    }
+
+    // Writes a random input to a file, sorts it with a small chunk and fan-in so that the
+    // merge takes several passes, and compares the output with Arrays.sort. The temporary
+    // directory must hold only the input and output afterwards.
+    static void checkExternal(SplittableRandom random, ExternalSort.KeyType type) throws IOException {
+        Shape shape = shape(random);
+        long[] keys = longs(random, shape, size(random, MAX_SIZE));
+        if (type == ExternalSort.KeyType.INT) {
+            for (int i = 0; i < keys.length; i++) {
+                keys[i] = (int) keys[i];
+            }
+        }
+        int chunkBytes = random.nextInt(Long.BYTES, 1 << 16);
+        int fanIn = random.nextInt(2, 17);
+        String config = type + " " + shape + " n=" + keys.length + " chunk=" + chunkBytes + " fanIn=" + fanIn;
+        Path dir = Files.createTempDirectory("sort-checker");
+        try {
+            Path input = dir.resolve("input");
+            Path output = dir.resolve("output");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(input)))) {
+                for (long key : keys) {
+                    if (type == ExternalSort.KeyType.INT) {
+                        out.writeInt((int) key);
+                    } else {
+                        out.writeLong(key);
+                    }
+                }
+            }
+            new ExternalSort(chunkBytes, fanIn, dir).sort(input, output, type);
+            Arrays.sort(keys);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(output)))) {
+                for (int i = 0; i < keys.length; i++) {
+                    long key = type == ExternalSort.KeyType.INT ? in.readInt() : in.readLong();
+                    if (key != keys[i]) {
+                        throw new CheckFailure(config + ": first difference at " + i);
+                    }
+                }
+                if (in.read() != -1) {
+                    throw new CheckFailure(config + ": output longer than the input");
+                }
+            }
+            try (Stream<Path> files = Files.list(dir)) {
+                if (files.count() != 2) {
+                    throw new CheckFailure(config + ": run files left behind");
+                }
+            }
+        } finally {
+            try (Stream<Path> files = Files.list(dir)) {
+                for (Path file : (Iterable<Path>) files::iterator) {
+                    Files.delete(file);
+                }
+            }
+            Files.delete(dir);
+        }
+    }
+
+    // Sorts keys held in a heap or direct buffer of either byte order through one of
+    // OffHeapSort's entry points. The keys start a few bytes into the buffer and the range is
+    // passed as a non-zero position and limit or as absolute indices, so keys outside it must
+    // stay put. A quarter of the trials are larger than OffHeapSort.BLOCK, and one in eight is
+    // an adversarial input that drives the in-place introsort down to its heapsort.
+    static void checkOffHeap(SplittableRandom random) throws Exception {
+        boolean direct = random.nextBoolean();
+        ByteOrder order = random.nextBoolean() ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN;
+        int pad = random.nextInt(0, 16);
+        int entry = random.nextInt(3);
+        String config = (direct ? "direct " : "heap ") + order + " pad=" + pad + " entry=" + entry;
+        IntRangeSort intEngine = (a, from, to) -> {
+            ByteBuffer buffer = buffer(direct, order, pad + a.length * Integer.BYTES);
+            for (int i = 0; i < a.length; i++) {
+                buffer.putInt(pad + i * Integer.BYTES, a[i]);
+            }
+            if (entry == 0) {
+                buffer.limit(pad + to * Integer.BYTES).position(pad + from * Integer.BYTES);
+                OffHeapSort.sortInts(buffer);
+                checkBounds(buffer, pad + from * Integer.BYTES, pad + to * Integer.BYTES);
+            } else {
+                IntBuffer view = buffer.position(pad).slice().order(order).asIntBuffer();
+                if (entry == 1) {
+                    view.limit(to).position(from);
+                    OffHeapSort.sort(view);
+                    checkBounds(view, from, to);
+                } else {
+                    OffHeapSort.sort(view, from, to);
+                }
+            }
+            buffer.clear();
+            for (int i = 0; i < a.length; i++) {
+                a[i] = buffer.getInt(pad + i * Integer.BYTES);
+            }
+        };
+        LongRangeSort longEngine = (a, from, to) -> {
+            ByteBuffer buffer = buffer(direct, order, pad + a.length * Long.BYTES);
+            for (int i = 0; i < a.length; i++) {
+                buffer.putLong(pad + i * Long.BYTES, a[i]);
+            }
+            if (entry == 0) {
+                buffer.limit(pad + to * Long.BYTES).position(pad + from * Long.BYTES);
+                OffHeapSort.sortLongs(buffer);
+                checkBounds(buffer, pad + from * Long.BYTES, pad + to * Long.BYTES);
+            } else {
+                LongBuffer view = buffer.position(pad).slice().order(order).asLongBuffer();
+                if (entry == 1) {
+                    view.limit(to).position(from);
+                    OffHeapSort.sort(view);
+                    checkBounds(view, from, to);
+                } else {
+                    OffHeapSort.sort(view, from, to);
+                }
+            }
+            buffer.clear();
+            for (int i = 0; i < a.length; i++) {
+                a[i] = buffer.getLong(pad + i * Long.BYTES);
+            }
+        };
+        if (random.nextInt(8) == 0) {
+            int[] killer = heapSortKiller(OffHeapSort.BLOCK + random.nextInt(1024, OffHeapSort.BLOCK));
+            long[] longKiller = new long[killer.length];
+            for (int i = 0; i < killer.length; i++) {
+                longKiller[i] = killer[i] * ((1L << 31) + 1);
+            }
+            checkInts(killer, 0, killer.length, "KILLER " + config, intEngine);
+            checkLongs(longKiller, 0, longKiller.length, "KILLER " + config, longEngine);
+        } else {
+            int maxSize = random.nextInt(4) == 0 ? 4 * OffHeapSort.BLOCK : MAX_SIZE;
+            checkInts(random, maxSize, config, intEngine);
+            checkLongs(random, maxSize, config, longEngine);
+        }
+    }
+
+    // Sorts int and float keys with VectorSort. Half of the trials sort a range of about
+    // 2 * VECTOR_LANES or 3 * VECTOR_LANES keys, where the kernels change strategy, and the
+    // float keys include NaN, -0.0, infinities and subnormals. When the JVM resolved the
+    // incubator module, VectorSort must actually be using the kernels.
+    static void checkVector(SplittableRandom random) throws Exception {
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent() && !VectorSort.isVectorized()) {
+            throw new CheckFailure("jdk.incubator.vector is resolved but VectorSort runs the scalar fallback;"
+                    + " compile Vector/ and run on a CPU with 256-bit vectors");
+        }
+        Shape shape = shape(random);
+        int from;
+        int to;
+        int n;
+        if (random.nextBoolean()) {
+            int edge = (random.nextBoolean() ? 2 : 3) * VECTOR_LANES;
+            from = random.nextInt(0, 2 * VECTOR_LANES);
+            to = from + Math.max(0, edge + random.nextInt(-2, 3));
+            n = to + random.nextInt(0, 2 * VECTOR_LANES);
+        } else {
+            n = size(random, MAX_SIZE);
+            from = random.nextInt(0, n + 1);
+            to = random.nextInt(from, n + 1);
+        }
+        int[] input = ints(random, shape, n);
+        String config = shape + (VectorSort.isVectorized() ? " vectorized" : " scalar");
+        checkInts(input, from, to, config, VectorSort::sort);
+
+        float[] specials = {Float.NaN, Float.intBitsToFloat(0x7FC00001), -0.0f, 0.0f, Float.NEGATIVE_INFINITY,
+                Float.POSITIVE_INFINITY, Float.MIN_VALUE, -Float.MIN_VALUE, Float.MAX_VALUE, -Float.MAX_VALUE};
+        float[] floats = new float[n];
+        for (int i = 0; i < n; i++) {
+            floats[i] = random.nextInt(8) == 0 ? specials[random.nextInt(specials.length)] : input[i] / 4.0f;
+        }
+        checkFloats(floats, from, to, config, VectorSort::sort);
+    }
+
+    static void checkFloats(float[] input, int from, int to, String config, FloatRangeSort engine) throws Exception {
+        float[] actual = input.clone();
+        engine.sort(actual, from, to);
+        float[] expected = input.clone();
+        Arrays.sort(expected, from, to);
+        if (!Arrays.equals(actual, expected)) {
+            throw new CheckFailure("float n=" + input.length + " [" + from + ", " + to + ") " + config
+                    + ": first difference at " + Arrays.mismatch(actual, expected));
+        }
+    }
+
+    // Builds a sub-range that must take a given SortDispatcher route, between random keys from
+    // the whole int range, and checks both the route and the result. The ranges that rely on
+    // the random sample are large enough that it cannot mistake them for another route: at
+    // least 512 keys give at least 32 sampled pairs. COUNTING sorts keys from a narrow band
+    // at a random offset, so the result depends on Decision.min and Decision.range being
+    // scanned from the sub-range alone.
+    static void checkDispatch(SplittableRandom random) throws Exception {
+        SortDispatcher.Route[] routes = SortDispatcher.Route.values();
+        SortDispatcher.Route route = routes[random.nextInt(routes.length)];
+        int[] keys;
+        String shape;
+        switch (route) {
+            case INSERTION: {
+                Shape s = shape(random);
+                keys = ints(random, s, random.nextInt(0, SortDispatcher.INSERTION_MAX + 1));
+                shape = s.toString();
+                break;
+            }
+            case ADAPTIVE_MERGE: {
+                WorkloadGenerator g = random.nextBoolean() ? WorkloadGenerator.sorted() : WorkloadGenerator.reversed();
+                keys = g.ints(random.nextInt(SortDispatcher.INSERTION_MAX + 1, MAX_SIZE), random.nextLong());
+                shape = g.toString();
+                break;
+            }
+            case COUNTING: {
+                int n = random.nextInt(512, MAX_SIZE);
+                int origin = random.nextInt(-1 << 30, 1 << 30);
+                int width = random.nextInt(16, Math.min(4 * n, RadixSort.COUNTING_RANGE) + 1);
+                WorkloadGenerator g = WorkloadGenerator.uniform(origin, origin + width);
+                keys = g.ints(n, random.nextLong());
+                shape = g.toString();
+                break;
+            }
+            case RADIX: {
+                WorkloadGenerator g = WorkloadGenerator.uniform();
+                keys = g.ints(random.nextInt(SortDispatcher.RADIX_MIN, MAX_SIZE), random.nextLong());
+                shape = g.toString();
+                break;
+            }
+            case INTROSORT_THREE_WAY: {
+                // Eight values spread over the whole int range, so the key range stays wide
+                int[] values = new int[8];
+                for (int k = 0; k < values.length; k++) {
+                    values[k] = (k - 4) * (1 << 28) + random.nextInt(1 << 20);
+                }
+                keys = WorkloadGenerator.uniform(values.length).ints(random.nextInt(512, SortDispatcher.RADIX_MIN),
+                        random.nextLong());
+                for (int i = 0; i < keys.length; i++) {
+                    keys[i] = values[keys[i]];
+                }
+                shape = "8 values";
+                break;
+            }
+            default: {
+                WorkloadGenerator g = WorkloadGenerator.uniform();
+                keys = g.ints(random.nextInt(512, SortDispatcher.RADIX_MIN), random.nextLong());
+                shape = g.toString();
+                break;
+            }
+        }
+        int from = random.nextInt(0, 64);
+        int to = from + keys.length;
+        int[] input = ints(random, Shape.RANDOM, to + random.nextInt(0, 64));
+        System.arraycopy(keys, 0, input, from, keys.length);
+
+        SortDispatcher.Decision[] decision = new SortDispatcher.Decision[1];
+        checkInts(input, from, to, route + " " + shape, (a, lo, hi) -> decision[0] = SortDispatcher.sort(a, lo, hi));
+        if (decision[0].route != route) {
+            throw new CheckFailure(shape + " n=" + keys.length + ": expected " + route + ", dispatched " + decision[0]);
+        }
+    }
+
+    // Sorts int and long keys with RadixSort, through the pooled or a caller's scratch buffer.
+    // Besides the usual shapes, the trials sort:
+    //   - bands whose max - min lies within one of COUNTING_RANGE or of 4n, on both sides of
+    //     the counting sort limits, placed anywhere up to MIN_VALUE or MAX_VALUE
+    //   - keys that differ only in a random subset of the 11-bit digits, so that passes are
+    //     skipped, including the top digit that holds the flipped sign bit
+    //   - packed keys with their index as payload through sortPackedKeys, whose result must
+    //     be stable and ignore the payload, even with the payload's top bit set
+    static void checkRadix(SplittableRandom random) throws Exception {
+        int extra = random.nextInt(0, 4);
+        String config = extra == 0 ? "pooled scratch" : "scratch +" + (extra - 1);
+        IntRangeSort intEngine = (a, from, to) -> {
+            if (extra == 0) {
+                RadixSort.sort(a, from, to);
+            } else {
+                RadixSort.sort(a, from, to, new int[to - from + extra - 1]);
+            }
+        };
+        LongRangeSort longEngine = (a, from, to) -> {
+            if (extra == 0) {
+                RadixSort.sort(a, from, to);
+            } else {
+                RadixSort.sort(a, from, to, new long[to - from + extra - 1]);
+            }
+        };
+        switch (random.nextInt(4)) {
+            case 0: {
+                checkInts(random, config, intEngine);
+                checkLongs(random, config, longEngine);
+                break;
+            }
+            case 1: {
+                // Either n is large enough that only COUNTING_RANGE decides, or small enough
+                // that only 4n does
+                int n;
+                long range;
+                if (random.nextBoolean()) {
+                    n = random.nextInt(RadixSort.COUNTING_RANGE / 4, MAX_SIZE + 1);
+                    range = RadixSort.COUNTING_RANGE + random.nextInt(-1, 2);
+                } else {
+                    n = random.nextInt(RadixSort.INSERTION_THRESHOLD + 1, RadixSort.COUNTING_RANGE / 4);
+                    range = 4L * n + random.nextInt(-1, 2);
+                }
+                int anchor = random.nextInt(3);
+                String band = "band max-min=" + range + " anchor=" + anchor + " " + config;
+                int intOrigin = anchor == 0 ? Integer.MIN_VALUE : anchor == 1 ? (int) (Integer.MAX_VALUE - range)
+                        : random.nextInt(Integer.MIN_VALUE, (int) (Integer.MAX_VALUE - range));
+                long longOrigin = anchor == 0 ? Long.MIN_VALUE : anchor == 1 ? Long.MAX_VALUE - range
+                        : random.nextLong(Long.MIN_VALUE, Long.MAX_VALUE - range);
+                int[] ints = new int[n];
+                long[] longs = new long[n];
+                for (int i = 0; i < n; i++) {
+                    long offset = random.nextLong(range + 1);
+                    ints[i] = (int) (intOrigin + offset);
+                    longs[i] = longOrigin + offset;
+                }
+                // Make the band exactly range wide
+                int lo = random.nextInt(n);
+                int hi = random.nextInt(n - 1);
+                hi += hi >= lo ? 1 : 0;
+                ints[lo] = intOrigin;
+                ints[hi] = (int) (intOrigin + range);
+                longs[lo] = longOrigin;
+                longs[hi] = longOrigin + range;
+                checkInts(ints, 0, n, band, intEngine);
+                checkLongs(longs, 0, n, band, longEngine);
+                break;
+            }
+            case 2: {
+                int n = size(random, MAX_SIZE);
+                int intMask = 0;
+                long longMask = 0;
+                for (int digit = 0; digit * RadixSort.DIGIT_BITS < Long.SIZE; digit++) {
+                    if (random.nextBoolean()) {
+                        long bits = (long) RadixSort.DIGIT_MASK << (digit * RadixSort.DIGIT_BITS);
+                        intMask |= (int) bits;
+                        longMask |= bits;
+                    }
+                }
+                int intBase = random.nextInt();
+                long longBase = random.nextLong();
+                int[] ints = new int[n];
+                long[] longs = new long[n];
+                for (int i = 0; i < n; i++) {
+                    ints[i] = intBase ^ (random.nextInt() & intMask);
+                    longs[i] = longBase ^ (random.nextLong() & longMask);
+                }
+                int from = random.nextInt(0, n + 1);
+                int to = random.nextInt(from, n + 1);
+                checkInts(ints, from, to, String.format("digits %08x %s", intMask, config), intEngine);
+                checkLongs(longs, from, to, String.format("digits %016x %s", longMask, config), longEngine);
+                break;
+            }
+            default: {
+                Shape shape = shape(random);
+                int[] keys = ints(random, shape, size(random, MAX_SIZE));
+                long payload = random.nextBoolean() ? 0 : 1L << 31;
+                long[] packed = new long[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    packed[i] = (long) keys[i] << 32 | (payload + i);
+                }
+                // With ascending payloads, the stable order by key is the numeric order
+                int from = random.nextInt(0, packed.length + 1);
+                int to = random.nextInt(from, packed.length + 1);
+                checkLongs(packed, from, to, "sortPackedKeys " + shape + " payload " + payload + " " + config,
+                        (a, lo, hi) -> RadixSort.sortPackedKeys(a, lo, hi, new long[hi - lo + extra]));
+                break;
+            }
+        }
+    }
+
+    // Sorts run-structured inputs with AdaptiveMergeSort, through the pooled scratch or a
+    // caller's buffer of exactly half the range: sawtooths with runs around MIN_MERGE and
+    // longer, organ pipes, many short descending runs broken up by ties, and runs of random
+    // length and direction over few values, which make merges gallop
+    static void checkAdaptiveMerge(SplittableRandom random) throws Exception {
+        boolean pooled = random.nextBoolean();
+        IntRangeSort engine = (a, from, to) -> {
+            if (pooled) {
+                AdaptiveMergeSort.sort(a, from, to);
+            } else {
+                AdaptiveMergeSort.sort(a, from, to, new int[(to - from) / 2]);
+            }
+        };
+        int n = size(random, MAX_SIZE);
+        int[] input;
+        String shape;
+        switch (random.nextInt(4)) {
+            case 0: {
+                int run = random.nextBoolean()
+                        ? random.nextInt(AdaptiveMergeSort.MIN_MERGE / 2, 2 * AdaptiveMergeSort.MIN_MERGE)
+                        : random.nextInt(1, 2048);
+                WorkloadGenerator g = WorkloadGenerator.sawtooth(run);
+                input = g.ints(n, random.nextLong());
+                shape = g.toString();
+                break;
+            }
+            case 1: {
+                WorkloadGenerator g = WorkloadGenerator.organPipe();
+                input = g.ints(n, random.nextLong());
+                shape = g.toString();
+                break;
+            }
+            case 2: {
+                int maxRun = random.nextInt(2, 64);
+                input = new int[n];
+                for (int i = 0; i < n; ) {
+                    int value = random.nextInt(1 << 16);
+                    for (int end = Math.min(n, i + random.nextInt(1, maxRun + 1)); i < end; i++) {
+                        input[i] = value;
+                        value -= random.nextInt(0, 4);
+                    }
+                }
+                shape = "descending runs up to " + maxRun;
+                break;
+            }
+            default: {
+                int values = random.nextInt(2, 64);
+                int maxRun = random.nextInt(2, 4096);
+                input = new int[n];
+                for (int i = 0; i < n; ) {
+                    int end = Math.min(n, i + random.nextInt(1, maxRun + 1));
+                    int start = i;
+                    for (; i < end; i++) {
+                        input[i] = random.nextInt(values);
+                    }
+                    Arrays.sort(input, start, end);
+                    if (random.nextBoolean()) {
+                        for (int l = start, r = end - 1; l < r; l++, r--) {
+                            int temp = input[l];
+                            input[l] = input[r];
+                            input[r] = temp;
+                        }
+                    }
+                }
+                shape = "runs up to " + maxRun + " of " + values + " values";
+                break;
+            }
+        }
+        int from = random.nextInt(0, n + 1);
+        int to = random.nextInt(from, n + 1);
+        checkInts(input, from, to, shape + (pooled ? " pooled scratch" : " scratch n/2"), engine);
+    }
+
+    // Checks QuickSort.select and sortTopK, which reach its introselect, and TopK against a
+    // sorted copy of a sub-range. k is drawn from both ends as often as from the middle, and
+    // a quarter of the trials call the whole-array methods instead.
+    static void checkSelect(SplittableRandom random) throws Exception {
+        Shape shape = shape(random);
+        int[] input = ints(random, shape, size(random, MAX_SIZE));
+        int from;
+        int to;
+        boolean whole = random.nextInt(4) == 0;
+        if (whole) {
+            from = 0;
+            to = input.length;
+        } else {
+            from = random.nextInt(0, input.length + 1);
+            to = random.nextInt(from, input.length + 1);
+        }
+        int n = to - from;
+        int[] sorted = Arrays.copyOfRange(input, from, to);
+        Arrays.sort(sorted);
+        int k;
+        switch (random.nextInt(4)) {
+            case 0: k = 0; break;
+            case 1: k = n; break;
+            default: k = random.nextInt(0, n + 1); break;
+        }
+        String config = shape + " n=" + input.length + " [" + from + ", " + to + ") k=" + k;
+
+        if (n > 0) {
+            int index = Math.min(k, n - 1);
+            int[] a = input.clone();
+            int selected = whole ? QuickSort.select(a, index) : QuickSort.select(a, from, to, from + index);
+            if (selected != sorted[index] || a[from + index] != selected) {
+                throw new CheckFailure("select " + config + ": got " + selected + ", expected " + sorted[index]);
+            }
+            for (int i = from; i < to; i++) {
+                if (i < from + index ? a[i] > selected : a[i] < selected) {
+                    throw new CheckFailure("select " + config + ": key at " + i + " on the wrong side");
+                }
+            }
+            checkRearranged("select " + config, input, a, from, to, sorted);
+        }
+
+        int[] a = input.clone();
+        if (whole) {
+            QuickSort.sortTopK(a, k);
+        } else {
+            QuickSort.sortTopK(a, from, to, k);
+        }
+        if (!Arrays.equals(a, from, from + k, sorted, 0, k)) {
+            throw new CheckFailure("sortTopK " + config + ": prefix differs from Arrays.sort");
+        }
+        checkRearranged("sortTopK " + config, input, a, from, to, sorted);
+
+        TopK smallest = TopK.smallest(k);
+        TopK largest = TopK.largest(k);
+        int[] range = Arrays.copyOfRange(input, from, to);
+        if (random.nextBoolean()) {
+            smallest.offerAll(range);
+            largest.offerAll(range);
+        } else {
+            smallest.offerAll(Arrays.stream(range).iterator());
+            largest.offerAll(Arrays.stream(range).iterator());
+        }
+        int kept = Math.min(k, n);
+        int[] expectedLargest = new int[kept];
+        for (int i = 0; i < kept; i++) {
+            expectedLargest[i] = sorted[n - 1 - i];
+        }
+        if (smallest.size() != kept || !Arrays.equals(smallest.toSortedArray(), Arrays.copyOf(sorted, kept))
+                || kept > 0 && smallest.peek() != sorted[kept - 1]) {
+            throw new CheckFailure("TopK.smallest " + config + ": kept " + Arrays.toString(smallest.toSortedArray()));
+        }
+        if (largest.size() != kept || !Arrays.equals(largest.toSortedArray(), expectedLargest)
+                || kept > 0 && largest.peek() != sorted[n - kept]) {
+            throw new CheckFailure("TopK.largest " + config + ": kept " + Arrays.toString(largest.toSortedArray()));
+        }
+    }
+
+    // After a selection the range must hold the same keys and the rest of the array must not
+    // have moved
+    static void checkRearranged(String config, int[] input, int[] actual, int from, int to, int[] sorted) {
+        int[] range = Arrays.copyOfRange(actual, from, to);
+        Arrays.sort(range);
+        if (!Arrays.equals(range, sorted) || !Arrays.equals(actual, 0, from, input, 0, from)
+                || !Arrays.equals(actual, to, actual.length, input, to, input.length)) {
+            throw new CheckFailure(config + ": keys lost or moved outside the range");
+        }
+    }
+
+    static ByteBuffer buffer(boolean direct, ByteOrder order, int capacity) {
+        return (direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity)).order(order);
+    }
+
+    // OffHeapSort must leave the position and limit of the buffer it sorts as they were
+    static void checkBounds(Buffer buffer, int position, int limit) {
+        if (buffer.position() != position || buffer.limit() != limit) {
+            throw new CheckFailure("position and limit " + position + ", " + limit + " moved to "
+                    + buffer.position() + ", " + buffer.limit());
+        }
+    }
+
+    // A permutation of 0..n-1 on which OffHeapSort's in-place introsort runs out of depth
+    // while its partitions are still larger than BLOCK, so it finishes with heapsort. The
+    // median-of-3 killer cannot do that, since OffHeapSort takes a ninther at that size.
+    //
+    // This is McIlroy's adversary: it replays OffHeapSort's pivot choice and partition on
+    // keys that start out unknown, fixes a key only when a comparison needs it, and fixes it
+    // below every key still unknown, so that each pivot splits off only a few keys. The
+    // replay must follow OffHeapSort.introSort step for step.
+    static int[] heapSortKiller(int n) {
+        Adversary adversary = new Adversary(n);
+        if (!adversary.introSort(0, n - 1, 2 * QuickSort.log2(n))) {
+            throw new CheckFailure("the adversary no longer reaches OffHeapSort's heapsort at n=" + n);
+        }
+        return adversary.keys();
+    }
+
+    static final class Adversary {
+        private static final int UNKNOWN = Integer.MAX_VALUE;
+
+        // items[i] is the key now at index i, val[k] the value fixed for key k
+        private final int[] items;
+        private final int[] val;
+        private int fixed;
+        private int candidate = -1;
+
+        Adversary(int n) {
+            items = new int[n];
+            val = new int[n];
+            for (int i = 0; i < n; i++) {
+                items[i] = i;
+                val[i] = UNKNOWN;
+            }
+        }
+
+        // Whether key x is less than key y, fixing one of them if both are unknown
+        private boolean less(int x, int y) {
+            if (val[x] == UNKNOWN && val[y] == UNKNOWN) {
+                val[x == candidate ? x : y] = fixed++;
+            }
+            if (val[x] == UNKNOWN) {
+                candidate = x;
+            } else if (val[y] == UNKNOWN) {
+                candidate = y;
+            }
+            return val[x] < val[y];
+        }
+
+        // Returns whether the replay reached the heapsort
+        boolean introSort(int left, int right, int depthLimit) {
+            while (right - left + 1 > OffHeapSort.BLOCK) {
+                if (depthLimit-- == 0) {
+                    return true;
+                }
+                swap(choosePivot(left, right), right);
+                int partition = partition(left, right);
+                if (partition - left < right - partition) {
+                    if (introSort(left, partition - 1, depthLimit)) {
+                        return true;
+                    }
+                    left = partition + 1;
+                } else {
+                    if (introSort(partition + 1, right, depthLimit)) {
+                        return true;
+                    }
+                    right = partition - 1;
+                }
+            }
+            return false;
+        }
+
+        private int partition(int left, int right) {
+            int pivot = items[right];
+            int leftCursor = left - 1;
+            int rightCursor = right;
+            while (true) {
+                while (less(items[++leftCursor], pivot)) {
+                }
+                while (rightCursor > left && less(pivot, items[--rightCursor])) {
+                }
+                if (leftCursor >= rightCursor) {
+                    break;
+                }
+                swap(leftCursor, rightCursor);
+            }
+            swap(leftCursor, right);
+            return leftCursor;
+        }
+
+        private int choosePivot(int left, int right) {
+            int mid = (left + right) >>> 1;
+            int step = (right - left + 1) / 8;
+            int first = medianOfThree(left, left + step, left + 2 * step);
+            int middle = medianOfThree(mid - step, mid, mid + step);
+            int last = medianOfThree(right - 2 * step, right - step, right);
+            return medianOfThree(first, middle, last);
+        }
+
+        private int medianOfThree(int i, int j, int k) {
+            int x = items[i];
+            int y = items[j];
+            int z = items[k];
+            if (less(x, y)) {
+                return less(y, z) ? j : (less(x, z) ? k : i);
+            }
+            return less(x, z) ? i : (less(y, z) ? k : j);
+        }
+
+        private void swap(int i, int j) {
+            int temp = items[i];
+            items[i] = items[j];
+            items[j] = temp;
+        }
+
+        // The input in its original order, with the keys never compared fixed last
+        int[] keys() {
+            for (int k = 0; k < val.length; k++) {
+                if (val[k] == UNKNOWN) {
+                    val[k] = fixed++;
+                }
+            }
+            return val.clone();
+        }
+    }
+
+    static Shape shape(SplittableRandom random) {
+        Shape[] shapes = Shape.values();
+        return shapes[random.nextInt(shapes.length)];
+    }
+
+    // Mostly sizes up to max, with a quarter of the trials on tiny inputs
+    static int size(SplittableRandom random, int max) {
+        return random.nextInt(4) == 0 ? random.nextInt(0, 64) : random.nextInt(0, max + 1);
+    }
+
+    static int[] ints(SplittableRandom random, Shape shape, int n) {
+        if (shape.generator != null) {
+            return shape.generator.ints(n, random.nextLong());
+        }
+        int[] extremes = {Integer.MIN_VALUE, Integer.MIN_VALUE + 1, -1, 0, 1, Integer.MAX_VALUE - 1, Integer.MAX_VALUE};
+        int[] a = new int[n];
+        for (int i = 0; i < n; i++) {
+            a[i] = extremes[random.nextInt(extremes.length)];
+        }
+        return a;
+    }
+
+    // The int keys of the shape times 2^31 + 1, which keeps their order and spreads them
+    // over the high bits, or extreme long values
+    static long[] longs(SplittableRandom random, Shape shape, int n) {
+        long[] a = new long[n];
+        if (shape.generator != null) {
+            int[] keys = shape.generator.ints(n, random.nextLong());
+            for (int i = 0; i < n; i++) {
+                a[i] = keys[i] * ((1L << 31) + 1);
+            }
+            return a;
+        }
+        long[] extremes = {Long.MIN_VALUE, Long.MIN_VALUE + 1, Integer.MIN_VALUE, -1, 0, 1, Integer.MAX_VALUE,
+                Long.MAX_VALUE - 1, Long.MAX_VALUE};
+        for (int i = 0; i < n; i++) {
+            a[i] = extremes[random.nextInt(extremes.length)];
+        }
+        return a;
+    }
+}
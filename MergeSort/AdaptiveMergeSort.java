@@ -0,0 +1,494 @@
+import java.util.Objects;
+
+// Adaptive, run-detecting merge sort for int[] in the style of TimSort.
+//
+// Instead of always splitting in half, the input is scanned for natural runs. Ascending runs
+// are kept as they are and strictly descending runs are reversed in place; runs shorter than
+// a minimum length are extended with InsertionSort.binaryInsertionSort. Runs are pushed on a
+// stack and merged while keeping the stack lengths roughly Fibonacci, which keeps merges
+// balanced. Merges first trim the parts of both runs that are already in place, then copy
+// only the shorter run to scratch, and switch to galloping (exponential search plus block
+// copies) when one run keeps winning. Sorted or reversed input is handled in a single O(n)
+// scan, and inputs made of a few long runs cost little more than merging those runs.
+public class AdaptiveMergeSort {
+
+    // Inputs shorter than this are sorted with binary insertion sort alone
+    static final int MIN_MERGE = 32;
+
+    // Consecutive wins by one run before a merge switches to galloping mode
+    static final int MIN_GALLOP = 7;
+
+    // Run stack depth; run lengths grow at least as fast as Fibonacci numbers, so 49 levels
+    // cover any int-sized array
+    private static final int MAX_RUNS = 49;
+
+    private final int[] a;
+    private final int[] tmp;
+    private int minGallop = MIN_GALLOP;
+
+    private final int[] runBase = new int[MAX_RUNS];
+    private final int[] runLen = new int[MAX_RUNS];
+    private int stackSize = 0;
+
+    private AdaptiveMergeSort(int[] a, int[] tmp) {
+        this.a = a;
+        this.tmp = tmp;
+    }
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        MergeSort.printArray(array);
+        sort(array);
+        System.out.println();
+        MergeSort.printArray(array);
+    }
+
+    // Sorts the given array in place
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // Sorts a[from..to) in place using a pooled scratch buffer
+    public static void sort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        sort(a, from, to, ScratchBuffers.ints((to - from) / 2));
+    }
+
+    // Sorts a[from..to) in place using the caller's scratch buffer, which must hold at least
+    // (to-from)/2 elements since only the shorter run of a merge is copied
+    public static void sort(int[] a, int from, int to, int[] scratch) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int remaining = to - from;
+        if (scratch.length < remaining / 2) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + remaining / 2 + " needed");
+        }
+        if (remaining < 2) {
+            return;
+        }
+        if (remaining < MIN_MERGE) {
+            int initRunLen = countRunAndMakeAscending(a, from, to);
+            InsertionSort.binaryInsertionSort(a, from, to, from + initRunLen);
+            return;
+        }
+
+        AdaptiveMergeSort sorter = new AdaptiveMergeSort(a, scratch);
+        int minRun = minRunLength(remaining);
+        int lo = from;
+        do {
+            int runLen = countRunAndMakeAscending(a, lo, to);
+
+            // Extend a short run to minRun with binary insertion sort
+            if (runLen < minRun) {
+                int force = Math.min(remaining, minRun);
+                InsertionSort.binaryInsertionSort(a, lo, lo + force, lo + runLen);
+                runLen = force;
+            }
+
+            sorter.pushRun(lo, runLen);
+            sorter.mergeCollapse();
+
+            lo += runLen;
+            remaining -= runLen;
+        } while (remaining != 0);
+
+        sorter.mergeForceCollapse();
+    }
+
+    // Returns the length of the run starting at lo, reversing it first if it is strictly
+    // descending. Only strict descents are reversed so equal items keep their order.
+    static int countRunAndMakeAscending(int[] a, int lo, int hi) {
+        int runHi = lo + 1;
+        if (runHi == hi) {
+            return 1;
+        }
+        if (a[runHi++] < a[lo]) {
+            while (runHi < hi && a[runHi] < a[runHi - 1]) {
+                runHi++;
+            }
+            reverseRange(a, lo, runHi);
+        } else {
+            while (runHi < hi && a[runHi] >= a[runHi - 1]) {
+                runHi++;
+            }
+        }
+        return runHi - lo;
+    }
+
+    private static void reverseRange(int[] a, int lo, int hi) {
+        hi--;
+        while (lo < hi) {
+            int t = a[lo];
+            a[lo++] = a[hi];
+            a[hi--] = t;
+        }
+    }
+
+    // Minimum run length for an input of n items: between MIN_MERGE/2 and MIN_MERGE, chosen
+    // so that n / minRun is a power of two or slightly less, which keeps the final merges
+    // balanced
+    static int minRunLength(int n) {
+        int r = 0;
+        while (n >= MIN_MERGE) {
+            r |= (n & 1);
+            n >>= 1;
+        }
+        return n + r;
+    }
+
+    private void pushRun(int base, int len) {
+        runBase[stackSize] = base;
+        runLen[stackSize] = len;
+        stackSize++;
+    }
+
+    // Merges runs on the stack until, for the top three runs X, Y, Z (Z on top),
+    // len(X) > len(Y) + len(Z) and len(Y) > len(Z) hold, also checked one level deeper
+    private void mergeCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] <= runLen[n] + runLen[n + 1]
+                    || n > 1 && runLen[n - 2] <= runLen[n] + runLen[n - 1]) {
+                if (runLen[n - 1] < runLen[n + 1]) {
+                    n--;
+                }
+            } else if (runLen[n] > runLen[n + 1]) {
+                break;
+            }
+            mergeAt(n);
+        }
+    }
+
+    // Merges all remaining runs once the input has been consumed
+    private void mergeForceCollapse() {
+        while (stackSize > 1) {
+            int n = stackSize - 2;
+            if (n > 0 && runLen[n - 1] < runLen[n + 1]) {
+                n--;
+            }
+            mergeAt(n);
+        }
+    }
+
+    // Merges the runs at stack positions i and i+1
+    private void mergeAt(int i) {
+        int base1 = runBase[i];
+        int len1 = runLen[i];
+        int base2 = runBase[i + 1];
+        int len2 = runLen[i + 1];
+
+        runLen[i] = len1 + len2;
+        if (i == stackSize - 3) {
+            runBase[i + 1] = runBase[i + 2];
+            runLen[i + 1] = runLen[i + 2];
+        }
+        stackSize--;
+
+        // Items at the start of run1 that are not greater than run2's first item are in place
+        int k = gallopRight(a[base2], a, base1, len1, 0);
+        base1 += k;
+        len1 -= k;
+        if (len1 == 0) {
+            return;
+        }
+
+        // Items at the end of run2 that are not less than run1's last item are in place
+        len2 = gallopLeft(a[base1 + len1 - 1], a, base2, len2, len2 - 1);
+        if (len2 == 0) {
+            return;
+        }
+
+        if (len1 <= len2) {
+            mergeLo(base1, len1, base2, len2);
+        } else {
+            mergeHi(base1, len1, base2, len2);
+        }
+    }
+
+    // Returns the position in a[base..base+len) where key would be inserted before any equal
+    // items, searching outward from base+hint with exponentially growing steps
+    static int gallopLeft(int key, int[] a, int base, int len, int hint) {
+        int lastOfs = 0;
+        int ofs = 1;
+        if (key > a[base + hint]) {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key > a[base + hint + ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
+        } else {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key <= a[base + hint - ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        }
+
+        // a[base+lastOfs] < key <= a[base+ofs]; finish with a binary search
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (key > a[base + m]) {
+                lastOfs = m + 1;
+            } else {
+                ofs = m;
+            }
+        }
+        return ofs;
+    }
+
+    // Like gallopLeft, but returns the position after any items equal to key
+    static int gallopRight(int key, int[] a, int base, int len, int hint) {
+        int lastOfs = 0;
+        int ofs = 1;
+        if (key < a[base + hint]) {
+            int maxOfs = hint + 1;
+            while (ofs < maxOfs && key < a[base + hint - ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            int t = lastOfs;
+            lastOfs = hint - ofs;
+            ofs = hint - t;
+        } else {
+            int maxOfs = len - hint;
+            while (ofs < maxOfs && key >= a[base + hint + ofs]) {
+                lastOfs = ofs;
+                ofs = (ofs << 1) + 1;
+                if (ofs <= 0) {
+                    ofs = maxOfs;
+                }
+            }
+            if (ofs > maxOfs) {
+                ofs = maxOfs;
+            }
+            lastOfs += hint;
+            ofs += hint;
+        }
+
+        // a[base+lastOfs] <= key < a[base+ofs]; finish with a binary search
+        lastOfs++;
+        while (lastOfs < ofs) {
+            int m = lastOfs + ((ofs - lastOfs) >>> 1);
+            if (key < a[base + m]) {
+                ofs = m;
+            } else {
+                lastOfs = m + 1;
+            }
+        }
+        return ofs;
+    }
+
+    // Merges two adjacent runs left to right, copying the first (shorter) run to scratch.
+    // mergeAt guarantees that run2's first item belongs before run1 and run1's last item
+    // belongs after run2.
+    private void mergeLo(int base1, int len1, int base2, int len2) {
+        int[] a = this.a;
+        int[] tmp = this.tmp;
+        System.arraycopy(a, base1, tmp, 0, len1);
+        int cursor1 = 0;
+        int cursor2 = base2;
+        int dest = base1;
+
+        a[dest++] = a[cursor2++];
+        if (--len2 == 0) {
+            System.arraycopy(tmp, cursor1, a, dest, len1);
+            return;
+        }
+        if (len1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, len2);
+            a[dest + len2] = tmp[cursor1];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+
+            // One item at a time until one run has won MIN_GALLOP times in a row
+            do {
+                if (a[cursor2] < tmp[cursor1]) {
+                    a[dest++] = a[cursor2++];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 0) {
+                        break outer;
+                    }
+                } else {
+                    a[dest++] = tmp[cursor1++];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            // Gallop: find whole blocks that can be copied at once, until that stops paying off
+            do {
+                count1 = gallopRight(a[cursor2], tmp, cursor1, len1, 0);
+                if (count1 != 0) {
+                    System.arraycopy(tmp, cursor1, a, dest, count1);
+                    dest += count1;
+                    cursor1 += count1;
+                    len1 -= count1;
+                    if (len1 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest++] = a[cursor2++];
+                if (--len2 == 0) {
+                    break outer;
+                }
+
+                count2 = gallopLeft(tmp[cursor1], a, cursor2, len2, 0);
+                if (count2 != 0) {
+                    System.arraycopy(a, cursor2, a, dest, count2);
+                    dest += count2;
+                    cursor2 += count2;
+                    len2 -= count2;
+                    if (len2 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest++] = tmp[cursor1++];
+                if (--len1 == 1) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            // Leaving gallop mode makes it harder to enter again
+            minGallop += 2;
+        }
+        this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+        if (len1 == 1) {
+            System.arraycopy(a, cursor2, a, dest, len2);
+            a[dest + len2] = tmp[cursor1];
+        } else {
+            System.arraycopy(tmp, cursor1, a, dest, len1);
+        }
+    }
+
+    // Merges two adjacent runs right to left, copying the second (shorter) run to scratch
+    private void mergeHi(int base1, int len1, int base2, int len2) {
+        int[] a = this.a;
+        int[] tmp = this.tmp;
+        System.arraycopy(a, base2, tmp, 0, len2);
+        int cursor1 = base1 + len1 - 1;
+        int cursor2 = len2 - 1;
+        int dest = base2 + len2 - 1;
+
+        a[dest--] = a[cursor1--];
+        if (--len1 == 0) {
+            System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+            return;
+        }
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+            a[dest] = tmp[cursor2];
+            return;
+        }
+
+        int minGallop = this.minGallop;
+        outer:
+        while (true) {
+            int count1 = 0;
+            int count2 = 0;
+
+            do {
+                if (tmp[cursor2] < a[cursor1]) {
+                    a[dest--] = a[cursor1--];
+                    count1++;
+                    count2 = 0;
+                    if (--len1 == 0) {
+                        break outer;
+                    }
+                } else {
+                    a[dest--] = tmp[cursor2--];
+                    count2++;
+                    count1 = 0;
+                    if (--len2 == 1) {
+                        break outer;
+                    }
+                }
+            } while ((count1 | count2) < minGallop);
+
+            do {
+                count1 = len1 - gallopRight(tmp[cursor2], a, base1, len1, len1 - 1);
+                if (count1 != 0) {
+                    dest -= count1;
+                    cursor1 -= count1;
+                    len1 -= count1;
+                    System.arraycopy(a, cursor1 + 1, a, dest + 1, count1);
+                    if (len1 == 0) {
+                        break outer;
+                    }
+                }
+                a[dest--] = tmp[cursor2--];
+                if (--len2 == 1) {
+                    break outer;
+                }
+
+                count2 = len2 - gallopLeft(a[cursor1], tmp, 0, len2, len2 - 1);
+                if (count2 != 0) {
+                    dest -= count2;
+                    cursor2 -= count2;
+                    len2 -= count2;
+                    System.arraycopy(tmp, cursor2 + 1, a, dest + 1, count2);
+                    if (len2 <= 1) {
+                        break outer;
+                    }
+                }
+                a[dest--] = a[cursor1--];
+                if (--len1 == 0) {
+                    break outer;
+                }
+                minGallop--;
+            } while (count1 >= MIN_GALLOP | count2 >= MIN_GALLOP);
+            if (minGallop < 0) {
+                minGallop = 0;
+            }
+            minGallop += 2;
+        }
+        this.minGallop = minGallop < 1 ? 1 : minGallop;
+
+        if (len2 == 1) {
+            dest -= len1;
+            cursor1 -= len1;
+            System.arraycopy(a, cursor1 + 1, a, dest + 1, len1);
+            a[dest] = tmp[cursor2];
+        } else {
+            System.arraycopy(tmp, 0, a, dest - (len2 - 1), len2);
+        }
+    }
+}
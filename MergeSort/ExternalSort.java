@@ -0,0 +1,425 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+// External merge sort for files of keys that do not fit in the heap.
+//
+// The input is a flat file of big-endian int or long keys, the layout written by
+// DataOutputStream. It is read in chunks of chunkBytes through a MappedByteBuffer, each
+// chunk is sorted in memory with MergeSort and spilled to a temporary run file. The runs are
+// then merged fanIn at a time with a binary heap of run cursors until one merge can write
+// the output. A merge of k runs gives each cursor and the output a window of
+// chunkBytes / (k + 1) bytes, but at least MIN_WINDOW_BYTES. Each cursor maps its run once
+// and copies one window of keys at a time onto the heap. The output collects keys in a
+// direct buffer of its window size and writes it with the channel. A merge therefore
+// buffers about max(chunkBytes, (k + 1) * MIN_WINDOW_BYTES) bytes whatever the key type.
+//
+// Time spent mapping and copying file contents is reported as I/O time and everything else
+// as CPU time, which shows whether a larger chunk, a larger fan-in or a faster disk would
+// help most.
+public final class ExternalSort {
+
+    // Default bytes of keys sorted in memory at a time
+    public static final int DEFAULT_CHUNK_BYTES = 64 << 20;
+
+    // Default number of runs merged at once
+    public static final int DEFAULT_FAN_IN = 64;
+
+    // Smallest window of keys buffered by one run cursor or the output during a merge
+    static final int MIN_WINDOW_BYTES = 64 << 10;
+
+    // Largest part of a run mapped at once; runs up to this size are mapped in one piece
+    static final long SEGMENT_BYTES = 1L << 30;
+
+    // Width of the keys stored in the file
+    public enum KeyType {
+        INT(Integer.BYTES), LONG(Long.BYTES);
+
+        final int bytes;
+
+        KeyType(int bytes) {
+            this.bytes = bytes;
+        }
+    }
+
+    private final int chunkBytes;
+    private final int fanIn;
+    private final Path tempDir;
+
+    // Uses the default chunk size and fan-in and the system temporary directory
+    public ExternalSort() {
+        this(DEFAULT_CHUNK_BYTES, DEFAULT_FAN_IN, Paths.get(System.getProperty("java.io.tmpdir")));
+    }
+
+    // Sorts chunkBytes of keys in memory at a time, merges up to fanIn runs per pass and
+    // keeps the run files in tempDir
+    public ExternalSort(int chunkBytes, int fanIn, Path tempDir) {
+        if (chunkBytes < Long.BYTES) {
+            throw new IllegalArgumentException("Chunk must hold at least one key: " + chunkBytes);
+        }
+        if (fanIn < 2) {
+            throw new IllegalArgumentException("Fan-in must be at least 2: " + fanIn);
+        }
+        this.chunkBytes = chunkBytes;
+        this.fanIn = fanIn;
+        this.tempDir = Objects.requireNonNull(tempDir);
+    }
+
+    // Usage: java ExternalSort int|long <input> <output> [chunkBytes] [fanIn]
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: java ExternalSort int|long <input> <output> [chunkBytes] [fanIn]");
+            System.exit(2);
+        }
+        KeyType type = KeyType.valueOf(args[0].toUpperCase());
+        int chunk = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_CHUNK_BYTES;
+        int fan = args.length > 4 ? Integer.parseInt(args[4]) : DEFAULT_FAN_IN;
+        Path output = Paths.get(args[2]);
+        Stats stats = new ExternalSort(chunk, fan, output.toAbsolutePath().getParent()).sort(Paths.get(args[1]), output, type);
+        System.out.println(stats);
+    }
+
+    // Sorts the keys in input into output, which is created or replaced
+    public Stats sort(Path input, Path output, KeyType type) throws IOException {
+        Objects.requireNonNull(type);
+        Stats stats = new Stats();
+        long start = System.nanoTime();
+        Set<Path> temps = new LinkedHashSet<>();
+        try {
+            List<Path> runs = createRuns(input, output, type, temps, stats);
+            while (runs.size() > fanIn) {
+                List<Path> next = new ArrayList<>();
+                for (int i = 0; i < runs.size(); i += fanIn) {
+                    List<Path> group = runs.subList(i, Math.min(i + fanIn, runs.size()));
+                    if (group.size() == 1) {
+                        next.add(group.get(0));
+                        continue;
+                    }
+                    Path run = newRun(temps);
+                    merge(group, run, type, stats);
+                    for (Path merged : group) {
+                        Files.delete(merged);
+                        temps.remove(merged);
+                    }
+                    next.add(run);
+                }
+                runs = next;
+                stats.mergePasses++;
+            }
+            if (!runs.isEmpty()) {
+                merge(runs, output, type, stats);
+                stats.mergePasses++;
+            }
+        } finally {
+            for (Path temp : temps) {
+                Files.deleteIfExists(temp);
+            }
+        }
+        stats.totalNanos = System.nanoTime() - start;
+        return stats;
+    }
+
+    // Sorts the input one chunk at a time. Returns the run files, or an empty list when the
+    // input fit in one chunk and was written straight to output.
+    private List<Path> createRuns(Path input, Path output, KeyType type, Set<Path> temps, Stats stats) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            long size = in.size();
+            if (size % type.bytes != 0) {
+                throw new IllegalArgumentException(input + " holds " + size + " bytes, not a whole number of " + type + " keys");
+            }
+            long elements = size / type.bytes;
+            int chunkElements = chunkBytes / type.bytes;
+            int capacity = (int) Math.min(chunkElements, elements);
+            int[] ints = type == KeyType.INT ? new int[capacity] : null;
+            int[] intScratch = type == KeyType.INT ? new int[capacity] : null;
+            long[] longs = type == KeyType.LONG ? new long[capacity] : null;
+            long[] longScratch = type == KeyType.LONG ? new long[capacity] : null;
+            stats.elements = elements;
+
+            if (elements == 0) {
+                write(output, type, ints, longs, 0, stats);
+                return runs;
+            }
+            for (long first = 0; first < elements; first += chunkElements) {
+                int n = (int) Math.min(chunkElements, elements - first);
+                long readStart = System.nanoTime();
+                MappedByteBuffer map = in.map(FileChannel.MapMode.READ_ONLY, first * type.bytes, (long) n * type.bytes);
+                if (type == KeyType.INT) {
+                    map.asIntBuffer().get(ints, 0, n);
+                } else {
+                    map.asLongBuffer().get(longs, 0, n);
+                }
+                long sortStart = System.nanoTime();
+                if (type == KeyType.INT) {
+                    MergeSort.sort(ints, 0, n, intScratch, MergeSort.INSERTION_THRESHOLD, MergeSort.Mode.PING_PONG);
+                } else {
+                    MergeSort.sort(longs, 0, n, longScratch, MergeSort.INSERTION_THRESHOLD, MergeSort.Mode.PING_PONG);
+                }
+                long sortEnd = System.nanoTime();
+                stats.ioNanos += sortStart - readStart;
+                stats.cpuNanos += sortEnd - sortStart;
+
+                Path run = elements <= chunkElements ? output : newRun(temps);
+                write(run, type, ints, longs, n, stats);
+                if (run != output) {
+                    runs.add(run);
+                }
+                stats.runs++;
+            }
+        }
+        return runs;
+    }
+
+    // Writes the first n sorted keys of ints or longs to path through one mapping
+    private static void write(Path path, KeyType type, int[] ints, long[] longs, int n, Stats stats) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            if (n > 0) {
+                MappedByteBuffer map = out.map(FileChannel.MapMode.READ_WRITE, 0, (long) n * type.bytes);
+                if (type == KeyType.INT) {
+                    map.asIntBuffer().put(ints, 0, n);
+                } else {
+                    map.asLongBuffer().put(longs, 0, n);
+                }
+            }
+        }
+        stats.ioNanos += System.nanoTime() - start;
+    }
+
+    // Merges the sorted run files into target with a min-heap of cursors ordered by their
+    // current key
+    private void merge(List<Path> runs, Path target, KeyType type, Stats stats) throws IOException {
+        long start = System.nanoTime();
+        long ioBefore = stats.ioNanos;
+        int window = Math.max(MIN_WINDOW_BYTES, chunkBytes / (runs.size() + 1)) / Long.BYTES * Long.BYTES;
+        Cursor[] heap = new Cursor[runs.size()];
+        List<Cursor> opened = new ArrayList<>();
+        try (Output out = new Output(target, type, window, stats)) {
+            int size = 0;
+            for (Path run : runs) {
+                Cursor cursor = new Cursor(run, type, window, stats);
+                opened.add(cursor);
+                if (cursor.advance()) {
+                    heap[size++] = cursor;
+                }
+            }
+            for (int i = size / 2 - 1; i >= 0; i--) {
+                siftDown(heap, i, size);
+            }
+            while (size > 0) {
+                Cursor top = heap[0];
+                out.put(top.value);
+                if (!top.advance()) {
+                    heap[0] = heap[--size];
+                }
+                siftDown(heap, 0, size);
+            }
+        } finally {
+            for (Cursor cursor : opened) {
+                cursor.close();
+            }
+        }
+        stats.cpuNanos += (System.nanoTime() - start) - (stats.ioNanos - ioBefore);
+    }
+
+    private static void siftDown(Cursor[] heap, int root, int size) {
+        if (size == 0) {
+            return;
+        }
+        Cursor item = heap[root];
+        int child;
+        while ((child = 2 * root + 1) < size) {
+            if (child + 1 < size && heap[child + 1].value < heap[child].value) {
+                child++;
+            }
+            if (item.value <= heap[child].value) {
+                break;
+            }
+            heap[root] = heap[child];
+            root = child;
+        }
+        heap[root] = item;
+    }
+
+    private Path newRun(Set<Path> temps) throws IOException {
+        Path run = Files.createTempFile(tempDir, "run-", ".bin");
+        temps.add(run);
+        return run;
+    }
+
+    // Reads one run file a window at a time; value holds the key last advanced to. The run
+    // is mapped once, in segments of at most SEGMENT_BYTES, and every refill copies the next
+    // window of keys out of that mapping into a window array of the run's key type.
+    private static final class Cursor implements Closeable {
+        private final FileChannel channel;
+        private final KeyType type;
+        private final long end;
+        private final int[] ints;
+        private final long[] longs;
+        private final Stats stats;
+        private IntBuffer mappedInts;
+        private LongBuffer mappedLongs;
+        private long mapped;
+        private int index;
+        private int limit;
+        long value;
+
+        Cursor(Path run, KeyType type, int windowBytes, Stats stats) throws IOException {
+            this.channel = FileChannel.open(run, StandardOpenOption.READ);
+            this.type = type;
+            this.end = channel.size();
+            this.ints = type == KeyType.INT ? new int[windowBytes / Integer.BYTES] : null;
+            this.longs = type == KeyType.LONG ? new long[windowBytes / Long.BYTES] : null;
+            this.stats = stats;
+        }
+
+        // Moves to the next key; returns false once the run is exhausted
+        boolean advance() throws IOException {
+            if (index == limit && !refill()) {
+                return false;
+            }
+            value = ints != null ? ints[index++] : longs[index++];
+            return true;
+        }
+
+        private boolean refill() throws IOException {
+            long start = System.nanoTime();
+            Buffer segment = type == KeyType.INT ? mappedInts : mappedLongs;
+            if (segment == null || !segment.hasRemaining()) {
+                if (mapped == end) {
+                    return false;
+                }
+                long bytes = Math.min(SEGMENT_BYTES, end - mapped);
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, mapped, bytes);
+                mapped += bytes;
+                if (type == KeyType.INT) {
+                    mappedInts = map.asIntBuffer();
+                } else {
+                    mappedLongs = map.asLongBuffer();
+                }
+            }
+            if (type == KeyType.INT) {
+                limit = Math.min(ints.length, mappedInts.remaining());
+                mappedInts.get(ints, 0, limit);
+            } else {
+                limit = Math.min(longs.length, mappedLongs.remaining());
+                mappedLongs.get(longs, 0, limit);
+            }
+            index = 0;
+            stats.ioNanos += System.nanoTime() - start;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    // Collects merged keys in one direct buffer and appends it to the target when it fills
+    private static final class Output implements Closeable {
+        private final FileChannel channel;
+        private final KeyType type;
+        private final ByteBuffer buffer;
+        private final Stats stats;
+
+        Output(Path target, KeyType type, int windowBytes, Stats stats) throws IOException {
+            this.channel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            this.type = type;
+            this.buffer = ByteBuffer.allocateDirect(windowBytes);
+            this.stats = stats;
+        }
+
+        void put(long value) throws IOException {
+            if (type == KeyType.INT) {
+                buffer.putInt((int) value);
+            } else {
+                buffer.putLong(value);
+            }
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            long start = System.nanoTime();
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+            stats.ioNanos += System.nanoTime() - start;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                flush();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+
+    // Counters and timings of one sort
+    public static final class Stats {
+        private long elements;
+        private int runs;
+        private int mergePasses;
+        private long ioNanos;
+        private long cpuNanos;
+        private long totalNanos;
+
+        public long getElements() {
+            return elements;
+        }
+
+        // Sorted chunks written, including a single chunk written straight to the output
+        public int getRuns() {
+            return runs;
+        }
+
+        // Merge passes over the data, including the final merge into the output
+        public int getMergePasses() {
+            return mergePasses;
+        }
+
+        // Time spent mapping files and copying keys between them and the heap
+        public long getIoNanos() {
+            return ioNanos;
+        }
+
+        // Time spent sorting chunks and merging keys
+        public long getCpuNanos() {
+            return cpuNanos;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "elements=" + elements + " runs=" + runs + " mergePasses=" + mergePasses
+                    + " io=" + ioNanos / 1_000_000 + "ms cpu=" + cpuNanos / 1_000_000 + "ms total="
+                    + totalNanos / 1_000_000 + "ms";
+        }
+    }
+}
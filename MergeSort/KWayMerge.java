@@ -0,0 +1,264 @@
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.PrimitiveIterator;
+
+// Merges k already sorted sources into one sorted sequence.
+//
+// All three forms use a loser tree: the k sources sit at the leaves of a binary tournament,
+// each internal node remembers the loser of the match played there and the root holds the
+// overall winner. After the winner is emitted only the matches on its leaf-to-root path are
+// replayed, so every element costs about log2(k) comparisons, and the tree lives in int
+// arrays allocated once per merge. Ties go to the source with the lower index, so the merge
+// is stable with respect to the order of the sources.
+public final class KWayMerge {
+
+    private KWayMerge() {
+    }
+
+    // Merges the sorted arrays into a new array
+    public static int[] merge(int[]... sources) {
+        int k = sources.length;
+        int[] from = new int[k];
+        int[] to = new int[k];
+        long total = 0;
+        for (int i = 0; i < k; i++) {
+            to[i] = sources[i].length;
+            total += to[i];
+        }
+        if (total > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Merged length " + total + " does not fit in an array");
+        }
+        int[] dst = new int[(int) total];
+        merge(sources, from, to, dst, 0);
+        return dst;
+    }
+
+    // Merges the sorted slices sources[i][from[i]..to[i]) into dst starting at dstFrom and
+    // returns the number of elements written
+    public static int merge(int[][] sources, int[] from, int[] to, int[] dst, int dstFrom) {
+        int k = sources.length;
+        if (from.length != k || to.length != k) {
+            throw new IllegalArgumentException("Expected " + k + " slice bounds, got " + from.length + " and " + to.length);
+        }
+        long total = 0;
+        for (int i = 0; i < k; i++) {
+            Objects.checkFromToIndex(from[i], to[i], sources[i].length);
+            total += to[i] - from[i];
+        }
+        Objects.checkFromIndexSize(dstFrom, (int) Math.min(total, Integer.MAX_VALUE), dst.length);
+        if (k == 0) {
+            return 0;
+        }
+
+        int[] pos = from.clone();
+        int[] tree = new int[k];
+        build(tree, k, (a, b) -> beats(sources, pos, to, a, b));
+        int out = dstFrom;
+        while (true) {
+            int winner = tree[0];
+            if (pos[winner] == to[winner]) {
+                break;
+            }
+            dst[out++] = sources[winner][pos[winner]++];
+            for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                int loser = tree[node];
+                if (beats(sources, pos, to, loser, winner)) {
+                    tree[node] = winner;
+                    winner = loser;
+                }
+            }
+            tree[0] = winner;
+        }
+        return out - dstFrom;
+    }
+
+    // True when slice a's current item should be emitted before slice b's; exhausted slices
+    // lose every match
+    private static boolean beats(int[][] sources, int[] pos, int[] to, int a, int b) {
+        if (pos[a] == to[a]) {
+            return false;
+        }
+        if (pos[b] == to[b]) {
+            return true;
+        }
+        int x = sources[a][pos[a]];
+        int y = sources[b][pos[b]];
+        return x < y || (x == y && a < b);
+    }
+
+    // Merges sorted int iterators lazily. One item is read ahead from each source when the
+    // merge is created, and afterwards one item from the source that produced each result.
+    public static PrimitiveIterator.OfInt merge(List<? extends PrimitiveIterator.OfInt> sources) {
+        return new IntMerge(sources);
+    }
+
+    // Merges iterators that are sorted by the comparator lazily, reading ahead like the int
+    // form. Sources must not yield null unless the comparator accepts it.
+    public static <T> Iterator<T> merge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> c) {
+        return new ObjectMerge<>(sources, c);
+    }
+
+    // Match between two leaves of a loser tree
+    private interface Match {
+        boolean beats(int a, int b);
+    }
+
+    // Plays the initial tournament: tree[1..k) receive the losers and tree[0] the winner.
+    // Leaves are the nodes k..2k-1, so the tree is well formed for any k.
+    private static void build(int[] tree, int k, Match match) {
+        int[] winners = new int[2 * k];
+        for (int i = 0; i < k; i++) {
+            winners[k + i] = i;
+        }
+        for (int node = k - 1; node > 0; node--) {
+            int left = winners[2 * node];
+            int right = winners[2 * node + 1];
+            if (match.beats(right, left)) {
+                winners[node] = right;
+                tree[node] = left;
+            } else {
+                winners[node] = left;
+                tree[node] = right;
+            }
+        }
+        tree[0] = k == 1 ? 0 : winners[1];
+    }
+
+    private static final class IntMerge implements PrimitiveIterator.OfInt {
+        private final PrimitiveIterator.OfInt[] sources;
+        private final int[] heads;
+        private final boolean[] done;
+        private final int[] tree;
+        private final int k;
+
+        IntMerge(List<? extends PrimitiveIterator.OfInt> sources) {
+            this.k = sources.size();
+            this.sources = sources.toArray(new PrimitiveIterator.OfInt[0]);
+            this.heads = new int[k];
+            this.done = new boolean[k];
+            this.tree = new int[Math.max(1, k)];
+            for (int i = 0; i < k; i++) {
+                pull(i);
+            }
+            if (k > 0) {
+                build(tree, k, this::beats);
+            }
+        }
+
+        private void pull(int source) {
+            if (sources[source].hasNext()) {
+                heads[source] = sources[source].nextInt();
+            } else {
+                done[source] = true;
+            }
+        }
+
+        private boolean beats(int a, int b) {
+            if (done[a]) {
+                return false;
+            }
+            if (done[b]) {
+                return true;
+            }
+            return heads[a] < heads[b] || (heads[a] == heads[b] && a < b);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return k > 0 && !done[tree[0]];
+        }
+
+        @Override
+        public int nextInt() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int winner = tree[0];
+            int value = heads[winner];
+            pull(winner);
+            for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                int loser = tree[node];
+                if (beats(loser, winner)) {
+                    tree[node] = winner;
+                    winner = loser;
+                }
+            }
+            tree[0] = winner;
+            return value;
+        }
+    }
+
+    private static final class ObjectMerge<T> implements Iterator<T> {
+        // Typed as Iterator<?> like heads, since arrays of generic types cannot be created
+        private final Iterator<?>[] sources;
+        private final Object[] heads;
+        private final boolean[] done;
+        private final int[] tree;
+        private final int k;
+        private final Comparator<? super T> c;
+
+        ObjectMerge(List<? extends Iterator<? extends T>> sources, Comparator<? super T> c) {
+            this.k = sources.size();
+            this.sources = sources.toArray(new Iterator<?>[0]);
+            this.c = Objects.requireNonNull(c);
+            this.heads = new Object[k];
+            this.done = new boolean[k];
+            this.tree = new int[Math.max(1, k)];
+            for (int i = 0; i < k; i++) {
+                pull(i);
+            }
+            if (k > 0) {
+                build(tree, k, this::beats);
+            }
+        }
+
+        private void pull(int source) {
+            if (sources[source].hasNext()) {
+                heads[source] = sources[source].next();
+            } else {
+                heads[source] = null;
+                done[source] = true;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean beats(int a, int b) {
+            if (done[a]) {
+                return false;
+            }
+            if (done[b]) {
+                return true;
+            }
+            int order = c.compare((T) heads[a], (T) heads[b]);
+            return order < 0 || (order == 0 && a < b);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return k > 0 && !done[tree[0]];
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int winner = tree[0];
+            T value = (T) heads[winner];
+            pull(winner);
+            for (int node = (winner + k) >>> 1; node > 0; node >>>= 1) {
+                int loser = tree[node];
+                if (beats(loser, winner)) {
+                    tree[node] = winner;
+                    winner = loser;
+                }
+            }
+            tree[0] = winner;
+            return value;
+        }
+    }
+}
@@ -1,55 +1,567 @@
+import java.util.Comparator;
+import java.util.Objects;
+
+// Merge sort over caller supplied arrays. The engine keeps no static state, so any number
+// of threads can sort different arrays at the same time, and callers that sort repeatedly
+// can pass in their own scratch buffer instead of allocating one per call.
 public class MergeSort {
 
-	private static int []myArray;
+	// Ranges at or below this size are finished with insertion sort instead of being split
+	// down to single items. Benchmark/CutoffCalibration measures the best value on a host.
+	public static final int INSERTION_THRESHOLD = 24;
+
+	// How the merge passes use the scratch buffer
+	public enum Mode {
+		// Recursive top-down merge sort; every merge writes into the scratch buffer and copies
+		// the result back, as merge() does
+		TOP_DOWN,
+		// Merge sort whose recursion levels alternate between the array and the scratch buffer,
+		// so each merge writes its output straight into the buffer the next level reads
+		PING_PONG
+	}
+
 	public static void main(String[] args) {
-		myArray = getArray();
+		int []myArray = getArray();
 		printArray(myArray);
-		sort();
+		sort(myArray);
 		System.out.println();
 		printArray(myArray);
 	}
 	
-	public static void sort(){
-		int []tempArray = new int[myArray.length];
-		mergeSort(tempArray,0,myArray.length-1);
+	// Sorts the given array in place
+	public static void sort(int []array){
+		sort(array, 0, array.length);
+	}
+	
+	// Sorts a[from..to) in place, allocating a scratch buffer for the merges
+	public static void sort(int []a,int from,int to){
+		sort(a, from, to, SortMetrics.NONE);
+	}
+	
+	// Sorts a[from..to) in place, allocating a scratch buffer for the merges and reporting
+	// comparisons, moves, merges, recursion depth and the buffer size to metrics
+	public static void sort(int []a,int from,int to,SortMetrics metrics){
+		Objects.checkFromToIndex(from, to, a.length);
+		metrics.scratchBytes(4L*(to-from));
+		sort(a, from, to, new int[to-from], metrics);
+	}
+	
+	// Sorts a[from..to) in place using the caller's scratch buffer, which must hold at least
+	// to-from elements. The buffer can be reused across calls but not shared between threads
+	// that sort at the same time.
+	public static void sort(int []a,int from,int to,int []scratch){
+		sort(a, from, to, scratch, SortMetrics.NONE);
 	}
 	
-	public static void mergeSort(int []tempArray,int lowerIndex,int upperIndex){
-		if(lowerIndex == upperIndex){
+	// Sorts the given array in place with the given merge mode
+	public static void sort(int []array,Mode mode){
+		sort(array, 0, array.length, new int[array.length], INSERTION_THRESHOLD, mode);
+	}
+	
+	// Sorts a[from..to) in place with the given cutoff and merge mode
+	public static void sort(int []a,int from,int to,int []scratch,int cutoff,Mode mode){
+		Objects.requireNonNull(mode);
+		if(mode == Mode.TOP_DOWN){
+			sort(a, from, to, scratch, cutoff);
 			return;
+		}
+		Objects.checkFromToIndex(from, to, a.length);
+		if(scratch.length < to-from){
+			throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to-from) + " needed");
+		}
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
+		pingPongSort(a, from, to, scratch, cutoff);
+	}
+	
+	// Sorts a[from..to) in place using the caller's scratch buffer, reporting to metrics
+	public static void sort(int []a,int from,int to,int []scratch,SortMetrics metrics){
+		sort(a, from, to, scratch, INSERTION_THRESHOLD, metrics);
+	}
+	
+	// Sorts a[from..to) in place using the caller's scratch buffer, insertion sorting ranges
+	// of at most cutoff items. A cutoff of 1 splits all the way down to single items.
+	public static void sort(int []a,int from,int to,int []scratch,int cutoff){
+		sort(a, from, to, scratch, cutoff, SortMetrics.NONE);
+	}
+	
+	// Sorts a[from..to) in place with the given cutoff, reporting to metrics
+	public static void sort(int []a,int from,int to,int []scratch,int cutoff,SortMetrics metrics){
+		Objects.checkFromToIndex(from, to, a.length);
+		if(scratch.length < to-from){
+			throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to-from) + " needed");
+		}
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
+		if(to-from > 1){
+			mergeSort(a, scratch, from, to-1, cutoff, 0, metrics);
+		}
+	}
+	
+	public static void mergeSort(int []a,int []tempArray,int lowerIndex,int upperIndex){
+		mergeSort(a, tempArray, lowerIndex, upperIndex, INSERTION_THRESHOLD, 0, SortMetrics.NONE);
+	}
+	
+	private static void mergeSort(int []a,int []tempArray,int lowerIndex,int upperIndex,int cutoff,int depth,SortMetrics metrics){
+		metrics.depth(depth);
+		// Small ranges are cheaper to insertion sort than to split, merge and copy back
+		if(upperIndex-lowerIndex < cutoff){
+			InsertionSort.insertionSort(a, lowerIndex, upperIndex+1, metrics);
 		}else{
-			int midPt = (lowerIndex+upperIndex)/2;
-			mergeSort(tempArray, lowerIndex, midPt);
-			mergeSort(tempArray, midPt+1, upperIndex);
-			merge(tempArray,lowerIndex,midPt+1,upperIndex);
+			int midPt = (lowerIndex+upperIndex)>>>1;
+			mergeSort(a, tempArray, lowerIndex, midPt, cutoff, depth+1, metrics);
+			mergeSort(a, tempArray, midPt+1, upperIndex, cutoff, depth+1, metrics);
+			merge(a, tempArray, lowerIndex, midPt+1, upperIndex, metrics);
 		}
 	}
 	
-	public static void merge(int []tempArray,int lowerIndexCursor,int higerIndex,int upperIndex){
+	public static void merge(int []a,int []tempArray,int lowerIndexCursor,int higerIndex,int upperIndex){
+		merge(a, tempArray, lowerIndexCursor, higerIndex, upperIndex, SortMetrics.NONE);
+	}
+	
+	private static void merge(int []a,int []tempArray,int lowerIndexCursor,int higerIndex,int upperIndex,SortMetrics metrics){
 		int tempIndex=0;
 		int lowerIndex = lowerIndexCursor;
 		int midIndex = higerIndex-1;
 		int totalItems = upperIndex-lowerIndex+1;
       // While neither array is empty
 		while(lowerIndex <= midIndex && higerIndex <= upperIndex){
-      // Compare the items of the two arrays and copy the smaller item into to third temp array
-			if(myArray[lowerIndex] < myArray[higerIndex]){
-				tempArray[tempIndex++] = myArray[lowerIndex++];
+      // Compare the items of the two arrays and copy the smaller item into to third temp array.
+      // Ties are taken from the lower half so equal items keep their order.
+			if(a[lowerIndex] <= a[higerIndex]){
+				tempArray[tempIndex++] = a[lowerIndex++];
 			}else{
-				tempArray[tempIndex++] = myArray[higerIndex++];
+				tempArray[tempIndex++] = a[higerIndex++];
 			}
 		}
+		// One comparison per item taken while both halves were non-empty
+		metrics.comparisons(tempIndex);
 		
 		while(lowerIndex <= midIndex){
-			tempArray[tempIndex++] = myArray[lowerIndex++];
+			tempArray[tempIndex++] = a[lowerIndex++];
 		}
 		while(higerIndex <= upperIndex){
-			tempArray[tempIndex++] = myArray[higerIndex++];
+			tempArray[tempIndex++] = a[higerIndex++];
 		}
 		
 		for(int i=0;i<totalItems;i++){
-			myArray[lowerIndexCursor+i] = tempArray[i];
+			a[lowerIndexCursor+i] = tempArray[i];
+		}
+		metrics.moves(totalItems);
+		metrics.passes(1);
+	}
+	
+	// Stable merge of the sorted runs src[lo1..hi1) and src[lo2..hi2) into dst starting at dlo.
+	// Unlike merge() the output goes to a separate array, so several merges can fill disjoint
+	// parts of one destination at the same time.
+	public static void mergeRuns(int []src,int lo1,int hi1,int lo2,int hi2,int []dst,int dlo){
+		while(lo1 < hi1 && lo2 < hi2){
+			if(src[lo1] <= src[lo2]){
+				dst[dlo++] = src[lo1++];
+			}else{
+				dst[dlo++] = src[lo2++];
+			}
+		}
+		System.arraycopy(src, lo1, dst, dlo, hi1-lo1);
+		System.arraycopy(src, lo2, dst, dlo+hi1-lo1, hi2-lo2);
+	}
+	
+	// Top-down merge sort of a[from..to) whose levels alternate between a and scratch. Each
+	// range is sorted into whichever buffer its parent merges from, so no merge copies its
+	// output back; only leaves that must end up in scratch are copied, while still in cache.
+	private static void pingPongSort(int []a,int from,int to,int []scratch,int cutoff){
+		if(to-from > 1){
+			pingPongSort(a, scratch, from, from, to, cutoff, false);
+		}
+	}
+	
+	// Sorts a[lo..hi) into a, or into scratch[lo-from..hi-from) when toScratch is set
+	private static void pingPongSort(int []a,int []scratch,int from,int lo,int hi,int cutoff,boolean toScratch){
+		if(hi-lo <= cutoff){
+			InsertionSort.insertionSort(a, lo, hi);
+			if(toScratch){
+				System.arraycopy(a, lo, scratch, lo-from, hi-lo);
+			}
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		pingPongSort(a, scratch, from, lo, mid, cutoff, !toScratch);
+		pingPongSort(a, scratch, from, mid, hi, cutoff, !toScratch);
+		if(toScratch){
+			mergeInto(a, lo, mid, hi, scratch, lo-from);
+		}else{
+			mergeInto(scratch, lo-from, mid-from, hi-from, a, lo);
+		}
+	}
+	
+	// Stable merge of src[lo..mid) and src[mid..hi) into dst at dlo. Both cursors advance by
+	// arithmetic on the comparison result rather than a branch, which the JIT can compile to
+	// conditional moves, so random input does not pay a misprediction per element.
+	private static void mergeInto(int []src,int lo,int mid,int hi,int []dst,int dlo){
+		int i = lo;
+		int j = mid;
+		while(i < mid && j < hi){
+			int left = src[i];
+			int right = src[j];
+			int takeRight = right < left ? 1 : 0;
+			dst[dlo++] = takeRight == 1 ? right : left;
+			j += takeRight;
+			i += 1-takeRight;
+		}
+		System.arraycopy(src, i, dst, dlo, mid-i);
+		System.arraycopy(src, j, dst, dlo+mid-i, hi-j);
+	}
+	
+	// Returns the permutation that sorts keys: keys[p[0]] <= keys[p[1]] <= ... The keys are
+	// not moved, and equal keys keep their index order. A copy of the keys is sorted along
+	// with the indices, so comparisons read memory sequentially instead of through p.
+	public static int[] argsort(int []keys){
+		int n = keys.length;
+		int []sortedKeys = keys.clone();
+		int []index = identity(n);
+		if(n > 1){
+			argsort(sortedKeys, index, new int[n], new int[n], 0, n, false);
+		}
+		return index;
+	}
+	
+	// Sorts keys[lo..hi) carrying index[lo..hi) along, leaving the result in keys and index
+	// or, when toScratch is set, in keyScratch and indexScratch, as pingPongSort does
+	private static void argsort(int []keys,int []index,int []keyScratch,int []indexScratch,int lo,int hi,boolean toScratch){
+		if(hi-lo <= INSERTION_THRESHOLD){
+			for(int i=lo+1;i<hi;i++){
+				int key = keys[i];
+				int item = index[i];
+				int j = i-1;
+				while(j >= lo && keys[j] > key){
+					keys[j+1] = keys[j];
+					index[j+1] = index[j];
+					j--;
+				}
+				keys[j+1] = key;
+				index[j+1] = item;
+			}
+			if(toScratch){
+				System.arraycopy(keys, lo, keyScratch, lo, hi-lo);
+				System.arraycopy(index, lo, indexScratch, lo, hi-lo);
+			}
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		argsort(keys, index, keyScratch, indexScratch, lo, mid, !toScratch);
+		argsort(keys, index, keyScratch, indexScratch, mid, hi, !toScratch);
+		if(toScratch){
+			mergeWithIndex(keys, index, lo, mid, hi, keyScratch, indexScratch);
+		}else{
+			mergeWithIndex(keyScratch, indexScratch, lo, mid, hi, keys, index);
+		}
+	}
+	
+	// Stable merge of the key runs [lo..mid) and [mid..hi) into dstKeys, moving each index
+	// with its key
+	private static void mergeWithIndex(int []srcKeys,int []srcIndex,int lo,int mid,int hi,int []dstKeys,int []dstIndex){
+		int i = lo;
+		int j = mid;
+		int out = lo;
+		while(i < mid && j < hi){
+			if(srcKeys[j] < srcKeys[i]){
+				dstKeys[out] = srcKeys[j];
+				dstIndex[out++] = srcIndex[j++];
+			}else{
+				dstKeys[out] = srcKeys[i];
+				dstIndex[out++] = srcIndex[i++];
+			}
+		}
+		System.arraycopy(srcKeys, i, dstKeys, out, mid-i);
+		System.arraycopy(srcIndex, i, dstIndex, out, mid-i);
+		out += mid-i;
+		System.arraycopy(srcKeys, j, dstKeys, out, hi-j);
+		System.arraycopy(srcIndex, j, dstIndex, out, hi-j);
+	}
+	
+	// Returns the permutation that sorts keys, like argsort(int[]); equal keys keep their
+	// index order
+	public static int[] argsort(long []keys){
+		int n = keys.length;
+		long []sortedKeys = keys.clone();
+		int []index = identity(n);
+		if(n > 1){
+			argsort(sortedKeys, index, new long[n], new int[n], 0, n, false);
+		}
+		return index;
+	}
+	
+	private static void argsort(long []keys,int []index,long []keyScratch,int []indexScratch,int lo,int hi,boolean toScratch){
+		if(hi-lo <= INSERTION_THRESHOLD){
+			for(int i=lo+1;i<hi;i++){
+				long key = keys[i];
+				int item = index[i];
+				int j = i-1;
+				while(j >= lo && keys[j] > key){
+					keys[j+1] = keys[j];
+					index[j+1] = index[j];
+					j--;
+				}
+				keys[j+1] = key;
+				index[j+1] = item;
+			}
+			if(toScratch){
+				System.arraycopy(keys, lo, keyScratch, lo, hi-lo);
+				System.arraycopy(index, lo, indexScratch, lo, hi-lo);
+			}
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		argsort(keys, index, keyScratch, indexScratch, lo, mid, !toScratch);
+		argsort(keys, index, keyScratch, indexScratch, mid, hi, !toScratch);
+		if(toScratch){
+			mergeWithIndex(keys, index, lo, mid, hi, keyScratch, indexScratch);
+		}else{
+			mergeWithIndex(keyScratch, indexScratch, lo, mid, hi, keys, index);
+		}
+	}
+	
+	private static void mergeWithIndex(long []srcKeys,int []srcIndex,int lo,int mid,int hi,long []dstKeys,int []dstIndex){
+		int i = lo;
+		int j = mid;
+		int out = lo;
+		while(i < mid && j < hi){
+			if(srcKeys[j] < srcKeys[i]){
+				dstKeys[out] = srcKeys[j];
+				dstIndex[out++] = srcIndex[j++];
+			}else{
+				dstKeys[out] = srcKeys[i];
+				dstIndex[out++] = srcIndex[i++];
+			}
+		}
+		System.arraycopy(srcKeys, i, dstKeys, out, mid-i);
+		System.arraycopy(srcIndex, i, dstIndex, out, mid-i);
+		out += mid-i;
+		System.arraycopy(srcKeys, j, dstKeys, out, hi-j);
+		System.arraycopy(srcIndex, j, dstIndex, out, hi-j);
+	}
+	
+	// Returns the permutation that sorts keys in the order of c, like argsort(int[]); keys
+	// that compare equal keep their index order
+	public static <T> int[] argsort(T []keys,Comparator<? super T> c){
+		Objects.requireNonNull(c);
+		int n = keys.length;
+		Object []sortedKeys = keys.clone();
+		int []index = identity(n);
+		if(n > 1){
+			argsort(sortedKeys, index, new Object[n], new int[n], 0, n, false, c);
+		}
+		return index;
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> void argsort(Object []keys,int []index,Object []keyScratch,int []indexScratch,int lo,int hi,boolean toScratch,Comparator<? super T> c){
+		if(hi-lo <= INSERTION_THRESHOLD){
+			for(int i=lo+1;i<hi;i++){
+				Object key = keys[i];
+				int item = index[i];
+				int j = i-1;
+				while(j >= lo && c.compare((T) keys[j], (T) key) > 0){
+					keys[j+1] = keys[j];
+					index[j+1] = index[j];
+					j--;
+				}
+				keys[j+1] = key;
+				index[j+1] = item;
+			}
+			if(toScratch){
+				System.arraycopy(keys, lo, keyScratch, lo, hi-lo);
+				System.arraycopy(index, lo, indexScratch, lo, hi-lo);
+			}
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		argsort(keys, index, keyScratch, indexScratch, lo, mid, !toScratch, c);
+		argsort(keys, index, keyScratch, indexScratch, mid, hi, !toScratch, c);
+		if(toScratch){
+			mergeWithIndex(keys, index, lo, mid, hi, keyScratch, indexScratch, c);
+		}else{
+			mergeWithIndex(keyScratch, indexScratch, lo, mid, hi, keys, index, c);
+		}
+	}
+	
+	@SuppressWarnings("unchecked")
+	private static <T> void mergeWithIndex(Object []srcKeys,int []srcIndex,int lo,int mid,int hi,Object []dstKeys,int []dstIndex,Comparator<? super T> c){
+		int i = lo;
+		int j = mid;
+		int out = lo;
+		while(i < mid && j < hi){
+			if(c.compare((T) srcKeys[j], (T) srcKeys[i]) < 0){
+				dstKeys[out] = srcKeys[j];
+				dstIndex[out++] = srcIndex[j++];
+			}else{
+				dstKeys[out] = srcKeys[i];
+				dstIndex[out++] = srcIndex[i++];
+			}
+		}
+		System.arraycopy(srcKeys, i, dstKeys, out, mid-i);
+		System.arraycopy(srcIndex, i, dstIndex, out, mid-i);
+		out += mid-i;
+		System.arraycopy(srcKeys, j, dstKeys, out, hi-j);
+		System.arraycopy(srcIndex, j, dstIndex, out, hi-j);
+	}
+	
+	// 0, 1, ..., n-1
+	private static int[] identity(int n){
+		int []index = new int[n];
+		for(int i=0;i<n;i++){
+			index[i] = i;
+		}
+		return index;
+	}
+	
+	// Sorts the given array in place
+	public static void sort(long []array){
+		sort(array, 0, array.length);
+	}
+	
+	// Sorts a[from..to) in place, allocating a scratch buffer for the merges
+	public static void sort(long []a,int from,int to){
+		Objects.checkFromToIndex(from, to, a.length);
+		sort(a, from, to, new long[to-from]);
+	}
+	
+	// Sorts a[from..to) in place using the caller's scratch buffer, which must hold at least
+	// to-from elements
+	public static void sort(long []a,int from,int to,long []scratch){
+		sort(a, from, to, scratch, INSERTION_THRESHOLD);
+	}
+	
+	// Sorts the given array in place with the given merge mode
+	public static void sort(long []array,Mode mode){
+		sort(array, 0, array.length, new long[array.length], INSERTION_THRESHOLD, mode);
+	}
+	
+	// Sorts a[from..to) in place with the given cutoff and merge mode
+	public static void sort(long []a,int from,int to,long []scratch,int cutoff,Mode mode){
+		Objects.requireNonNull(mode);
+		if(mode == Mode.TOP_DOWN){
+			sort(a, from, to, scratch, cutoff);
+			return;
+		}
+		Objects.checkFromToIndex(from, to, a.length);
+		if(scratch.length < to-from){
+			throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to-from) + " needed");
+		}
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
+		pingPongSort(a, from, to, scratch, cutoff);
+	}
+	
+	// Sorts a[from..to) in place using the caller's scratch buffer, insertion sorting ranges
+	// of at most cutoff items
+	public static void sort(long []a,int from,int to,long []scratch,int cutoff){
+		Objects.checkFromToIndex(from, to, a.length);
+		if(scratch.length < to-from){
+			throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to-from) + " needed");
+		}
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
+		if(to-from > 1){
+			mergeSort(a, scratch, from, to-1, cutoff);
+		}
+	}
+	
+	public static void mergeSort(long []a,long []tempArray,int lowerIndex,int upperIndex){
+		mergeSort(a, tempArray, lowerIndex, upperIndex, INSERTION_THRESHOLD);
+	}
+	
+	private static void mergeSort(long []a,long []tempArray,int lowerIndex,int upperIndex,int cutoff){
+		if(upperIndex-lowerIndex < cutoff){
+			PrimitiveSorts.insertionSort(a, lowerIndex, upperIndex+1);
+		}else{
+			int midPt = (lowerIndex+upperIndex)>>>1;
+			mergeSort(a, tempArray, lowerIndex, midPt, cutoff);
+			mergeSort(a, tempArray, midPt+1, upperIndex, cutoff);
+			merge(a, tempArray, lowerIndex, midPt+1, upperIndex);
+		}
+	}
+	
+	public static void merge(long []a,long []tempArray,int lowerIndexCursor,int higerIndex,int upperIndex){
+		int tempIndex=0;
+		int lowerIndex = lowerIndexCursor;
+		int midIndex = higerIndex-1;
+		int totalItems = upperIndex-lowerIndex+1;
+		while(lowerIndex <= midIndex && higerIndex <= upperIndex){
+			if(a[lowerIndex] <= a[higerIndex]){
+				tempArray[tempIndex++] = a[lowerIndex++];
+			}else{
+				tempArray[tempIndex++] = a[higerIndex++];
+			}
+		}
+		
+		while(lowerIndex <= midIndex){
+			tempArray[tempIndex++] = a[lowerIndex++];
+		}
+		while(higerIndex <= upperIndex){
+			tempArray[tempIndex++] = a[higerIndex++];
+		}
+		
+		System.arraycopy(tempArray, 0, a, lowerIndexCursor, totalItems);
+	}
+	
+	// Stable merge of the sorted runs src[lo1..hi1) and src[lo2..hi2) into dst starting at dlo
+	public static void mergeRuns(long []src,int lo1,int hi1,int lo2,int hi2,long []dst,int dlo){
+		while(lo1 < hi1 && lo2 < hi2){
+			if(src[lo1] <= src[lo2]){
+				dst[dlo++] = src[lo1++];
+			}else{
+				dst[dlo++] = src[lo2++];
+			}
+		}
+		System.arraycopy(src, lo1, dst, dlo, hi1-lo1);
+		System.arraycopy(src, lo2, dst, dlo+hi1-lo1, hi2-lo2);
+	}
+	
+	// Merge sort of a[from..to) alternating between a and scratch, as for int[]
+	private static void pingPongSort(long []a,int from,int to,long []scratch,int cutoff){
+		if(to-from > 1){
+			pingPongSort(a, scratch, from, from, to, cutoff, false);
+		}
+	}
+	
+	// Sorts a[lo..hi) into a, or into scratch[lo-from..hi-from) when toScratch is set
+	private static void pingPongSort(long []a,long []scratch,int from,int lo,int hi,int cutoff,boolean toScratch){
+		if(hi-lo <= cutoff){
+			PrimitiveSorts.insertionSort(a, lo, hi);
+			if(toScratch){
+				System.arraycopy(a, lo, scratch, lo-from, hi-lo);
+			}
+			return;
+		}
+		int mid = (lo+hi)>>>1;
+		pingPongSort(a, scratch, from, lo, mid, cutoff, !toScratch);
+		pingPongSort(a, scratch, from, mid, hi, cutoff, !toScratch);
+		if(toScratch){
+			mergeInto(a, lo, mid, hi, scratch, lo-from);
+		}else{
+			mergeInto(scratch, lo-from, mid-from, hi-from, a, lo);
+		}
+	}
+	
+	// Stable merge of src[lo..mid) and src[mid..hi) into dst at dlo, as for int[]
+	private static void mergeInto(long []src,int lo,int mid,int hi,long []dst,int dlo){
+		int i = lo;
+		int j = mid;
+		while(i < mid && j < hi){
+			long left = src[i];
+			long right = src[j];
+			int takeRight = right < left ? 1 : 0;
+			dst[dlo++] = takeRight == 1 ? right : left;
+			j += takeRight;
+			i += 1-takeRight;
 		}
+		System.arraycopy(src, i, dst, dlo, mid-i);
+		System.arraycopy(src, j, dst, dlo+mid-i, hi-j);
 	}
 	
 	public static void printArray(int []array){
@@ -58,16 +570,9 @@ public class MergeSort {
 		}
 	}
 	
-   //populate array
+   //populate array with 1500 keys in [0, 100), the same on every run
 	public static int[] getArray(){
-		int size=1500;
-		int []array = new int[size];
-		int item = 0;
-		for(int i=0;i<size;i++){
-			item = (int)(Math.random()*100); 
-			array[i] = item;
-		}
-		return array;
+		return WorkloadGenerator.uniform(100).ints(1500, 42);
 	}
 
 }
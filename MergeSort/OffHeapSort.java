@@ -0,0 +1,284 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.util.Objects;
+
+// In-place introsort of int and long keys held in NIO buffers, typically views of direct
+// ByteBuffers or mapped files, so off-heap data is sorted where it lives instead of being
+// copied into an int[] first. Nothing proportional to the data is allocated on the heap.
+//
+// The upper levels partition the buffer in place with absolute get/put, using the same
+// introsort as QuickSort: ninther or median-of-three pivots and heapsort past 2*log2(n)
+// levels. Every such access pays a bounds check, so partitions of at most BLOCK keys are
+// bulk copied into a pooled per-thread array, sorted there and copied back; that keeps the
+// heap footprint at one small block however large the buffer is. Buffers in either byte
+// order work, those in native order are fastest.
+//
+// A single buffer holds at most 2 GB, so larger working sets have to be sorted in chunks,
+// as ExternalSort does for files.
+public final class OffHeapSort {
+
+    // Partitions at or below this size are sorted in a heap block instead of in place
+    static final int BLOCK = 1 << 14;
+
+    // Partitions above this size pick the pivot with Tukey's ninther
+    private static final int NINTHER_THRESHOLD = 128;
+
+    private OffHeapSort() {
+    }
+
+    // Sorts the ints between the buffer's position and limit as big- or little-endian keys
+    // according to its byte order; position and limit are left unchanged
+    public static void sortInts(ByteBuffer buffer) {
+        if (buffer.remaining() % Integer.BYTES != 0) {
+            throw new IllegalArgumentException(buffer.remaining() + " bytes is not a whole number of ints");
+        }
+        sort(buffer.asIntBuffer());
+    }
+
+    // Sorts the longs between the buffer's position and limit
+    public static void sortLongs(ByteBuffer buffer) {
+        if (buffer.remaining() % Long.BYTES != 0) {
+            throw new IllegalArgumentException(buffer.remaining() + " bytes is not a whole number of longs");
+        }
+        sort(buffer.asLongBuffer());
+    }
+
+    // Sorts the elements between the buffer's position and limit
+    public static void sort(IntBuffer buffer) {
+        sort(buffer, buffer.position(), buffer.limit());
+    }
+
+    // Sorts the elements at absolute indices [from, to) of the buffer
+    public static void sort(IntBuffer buffer, int from, int to) {
+        Objects.checkFromToIndex(from, to, buffer.limit());
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (to - from > 1) {
+            introSort(buffer, from, to - 1, 2 * QuickSort.log2(to - from));
+        }
+    }
+
+    private static void introSort(IntBuffer b, int left, int right, int depthLimit) {
+        while (right - left + 1 > BLOCK) {
+            if (depthLimit-- == 0) {
+                heapSort(b, left, right);
+                return;
+            }
+            swap(b, choosePivot(b, left, right), right);
+            int partition = partition(b, left, right);
+            if (partition - left < right - partition) {
+                introSort(b, left, partition - 1, depthLimit);
+                left = partition + 1;
+            } else {
+                introSort(b, partition + 1, right, depthLimit);
+                right = partition - 1;
+            }
+        }
+        sortBlock(b, left, right + 1);
+    }
+
+    // Sorts b[from..to) through a pooled heap array with two bulk copies
+    private static void sortBlock(IntBuffer b, int from, int to) {
+        int n = to - from;
+        int[] block = ScratchBuffers.ints(n);
+        b.get(from, block, 0, n);
+        QuickSort.sort(block, 0, n, QuickSort.Partition.TWO_WAY);
+        b.put(from, block, 0, n);
+    }
+
+    // Hoare-style partition around the pivot stored at b[right]; returns its final index
+    private static int partition(IntBuffer b, int left, int right) {
+        int pivot = b.get(right);
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (b.get(++leftCursor) < pivot) {
+            }
+            while (rightCursor > left && b.get(--rightCursor) > pivot) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(b, leftCursor, rightCursor);
+        }
+        swap(b, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int choosePivot(IntBuffer b, int left, int right) {
+        int mid = (left + right) >>> 1;
+        if (right - left + 1 <= NINTHER_THRESHOLD) {
+            return medianOfThree(b, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int first = medianOfThree(b, left, left + step, left + 2 * step);
+        int middle = medianOfThree(b, mid - step, mid, mid + step);
+        int last = medianOfThree(b, right - 2 * step, right - step, right);
+        return medianOfThree(b, first, middle, last);
+    }
+
+    private static int medianOfThree(IntBuffer b, int i, int j, int k) {
+        int x = b.get(i);
+        int y = b.get(j);
+        int z = b.get(k);
+        if (x < y) {
+            return y < z ? j : (x < z ? k : i);
+        }
+        return x < z ? i : (y < z ? k : j);
+    }
+
+    private static void heapSort(IntBuffer b, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(b, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(b, left, left + end);
+            siftDown(b, left, 0, end);
+        }
+    }
+
+    private static void siftDown(IntBuffer b, int offset, int root, int n) {
+        int item = b.get(offset + root);
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && b.get(offset + child) < b.get(offset + child + 1)) {
+                child++;
+            }
+            int larger = b.get(offset + child);
+            if (item >= larger) {
+                break;
+            }
+            b.put(offset + root, larger);
+            root = child;
+        }
+        b.put(offset + root, item);
+    }
+
+    private static void swap(IntBuffer b, int i, int j) {
+        int temp = b.get(i);
+        b.put(i, b.get(j));
+        b.put(j, temp);
+    }
+
+    // Sorts the elements between the buffer's position and limit
+    public static void sort(LongBuffer buffer) {
+        sort(buffer, buffer.position(), buffer.limit());
+    }
+
+    // Sorts the elements at absolute indices [from, to) of the buffer
+    public static void sort(LongBuffer buffer, int from, int to) {
+        Objects.checkFromToIndex(from, to, buffer.limit());
+        if (buffer.isReadOnly()) {
+            throw new ReadOnlyBufferException();
+        }
+        if (to - from > 1) {
+            introSort(buffer, from, to - 1, 2 * QuickSort.log2(to - from));
+        }
+    }
+
+    private static void introSort(LongBuffer b, int left, int right, int depthLimit) {
+        while (right - left + 1 > BLOCK) {
+            if (depthLimit-- == 0) {
+                heapSort(b, left, right);
+                return;
+            }
+            swap(b, choosePivot(b, left, right), right);
+            int partition = partition(b, left, right);
+            if (partition - left < right - partition) {
+                introSort(b, left, partition - 1, depthLimit);
+                left = partition + 1;
+            } else {
+                introSort(b, partition + 1, right, depthLimit);
+                right = partition - 1;
+            }
+        }
+        sortBlock(b, left, right + 1);
+    }
+
+    // Sorts b[from..to) through a pooled heap array with two bulk copies
+    private static void sortBlock(LongBuffer b, int from, int to) {
+        int n = to - from;
+        long[] block = ScratchBuffers.longs(n);
+        b.get(from, block, 0, n);
+        PrimitiveSorts.quickSort(block, 0, n);
+        b.put(from, block, 0, n);
+    }
+
+    private static int partition(LongBuffer b, int left, int right) {
+        long pivot = b.get(right);
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (b.get(++leftCursor) < pivot) {
+            }
+            while (rightCursor > left && b.get(--rightCursor) > pivot) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(b, leftCursor, rightCursor);
+        }
+        swap(b, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int choosePivot(LongBuffer b, int left, int right) {
+        int mid = (left + right) >>> 1;
+        if (right - left + 1 <= NINTHER_THRESHOLD) {
+            return medianOfThree(b, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int first = medianOfThree(b, left, left + step, left + 2 * step);
+        int middle = medianOfThree(b, mid - step, mid, mid + step);
+        int last = medianOfThree(b, right - 2 * step, right - step, right);
+        return medianOfThree(b, first, middle, last);
+    }
+
+    private static int medianOfThree(LongBuffer b, int i, int j, int k) {
+        long x = b.get(i);
+        long y = b.get(j);
+        long z = b.get(k);
+        if (x < y) {
+            return y < z ? j : (x < z ? k : i);
+        }
+        return x < z ? i : (y < z ? k : j);
+    }
+
+    private static void heapSort(LongBuffer b, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(b, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(b, left, left + end);
+            siftDown(b, left, 0, end);
+        }
+    }
+
+    private static void siftDown(LongBuffer b, int offset, int root, int n) {
+        long item = b.get(offset + root);
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && b.get(offset + child) < b.get(offset + child + 1)) {
+                child++;
+            }
+            long larger = b.get(offset + child);
+            if (item >= larger) {
+                break;
+            }
+            b.put(offset + root, larger);
+            root = child;
+        }
+        b.put(offset + root, item);
+    }
+
+    private static void swap(LongBuffer b, int i, int j) {
+        long temp = b.get(i);
+        b.put(i, b.get(j));
+        b.put(j, temp);
+    }
+}
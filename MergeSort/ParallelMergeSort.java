@@ -0,0 +1,321 @@
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Fork/join merge sort for large int[] and long[] arrays.
+//
+// The range is split in half recursively until it is no larger than the threshold; those
+// leaves are sorted sequentially with MergeSort. Sorted halves are then combined with a
+// parallel merge: the middle element of the longer run is located in the shorter run by
+// binary search, which splits the merge into two independent merges that run as separate
+// tasks. Each level alternates between the array and one scratch buffer, so data is only
+// copied once per level and the output is stable like MergeSort's.
+public class ParallelMergeSort {
+
+    // Ranges at or below this size are sorted or merged on a single thread
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        sort(array);
+        MergeSort.printArray(array);
+    }
+
+    // Sorts the given array in place on the common pool
+    public static void sort(int[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) in place on the given pool. Ranges of at most threshold elements are
+    // handled sequentially; lower values expose more parallelism at the price of more tasks.
+    public static void sort(int[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            MergeSort.sort(a, from, to);
+            return;
+        }
+        int[] scratch = new int[to - from];
+        pool.invoke(new IntSortTask(a, scratch, from, from, to, false, threshold));
+    }
+
+    // Sorts the given array in place on the common pool
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) in place on the given pool
+    public static void sort(long[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            MergeSort.sort(a, from, to);
+            return;
+        }
+        long[] scratch = new long[to - from];
+        pool.invoke(new LongSortTask(a, scratch, from, from, to, false, threshold));
+    }
+
+    // Sorts a[from..to), leaving the result in scratch[from-base..to-base) when intoScratch
+    // is set and in a[from..to) otherwise; scratch holds the sorted range from base on
+    static final class IntSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int[] scratch;
+        private final int base;
+        private final int from;
+        private final int to;
+        private final boolean intoScratch;
+        private final int threshold;
+
+        IntSortTask(int[] a, int[] scratch, int base, int from, int to, boolean intoScratch, int threshold) {
+            this.a = a;
+            this.scratch = scratch;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+            this.intoScratch = intoScratch;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                MergeSort.sort(a, from, to, leafScratch(to - from));
+                if (intoScratch) {
+                    System.arraycopy(a, from, scratch, from - base, to - from);
+                }
+                return;
+            }
+            // Sort both halves into the other buffer, then merge them back into ours
+            int mid = (from + to) >>> 1;
+            invokeAll(new IntSortTask(a, scratch, base, from, mid, !intoScratch, threshold),
+                    new IntSortTask(a, scratch, base, mid, to, !intoScratch, threshold));
+            int[] src = intoScratch ? a : scratch;
+            int[] dst = intoScratch ? scratch : a;
+            // Positions in scratch are relative to base
+            int srcShift = intoScratch ? 0 : base;
+            int dstShift = intoScratch ? base : 0;
+            new IntMergeTask(src, from - srcShift, mid - srcShift, mid - srcShift, to - srcShift, dst, from - dstShift,
+                    threshold).compute();
+        }
+    }
+
+    // Stable merge of src[lo1..hi1) and src[lo2..hi2) into dst starting at dlo
+    static final class IntMergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final int[] dst;
+        private final int dlo;
+        private final int threshold;
+
+        IntMergeTask(int[] src, int lo1, int hi1, int lo2, int hi2, int[] dst, int dlo, int threshold) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.dlo = dlo;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold || n1 == 0 || n2 == 0) {
+                MergeSort.mergeRuns(src, lo1, hi1, lo2, hi2, dst, dlo);
+                return;
+            }
+            int m1;
+            int m2;
+            if (n1 >= n2) {
+                // Items of the second run equal to the split key go to the right, after it
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                // Items of the first run equal to the split key go to the left, before it
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            int split = dlo + (m1 - lo1) + (m2 - lo2);
+            invokeAll(new IntMergeTask(src, lo1, m1, lo2, m2, dst, dlo, threshold),
+                    new IntMergeTask(src, m1, hi1, m2, hi2, dst, split, threshold));
+        }
+    }
+
+    // Sorts a[from..to), leaving the result in scratch[from-base..to-base) when intoScratch
+    // is set and in a[from..to) otherwise; scratch holds the sorted range from base on
+    static final class LongSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final long[] scratch;
+        private final int base;
+        private final int from;
+        private final int to;
+        private final boolean intoScratch;
+        private final int threshold;
+
+        LongSortTask(long[] a, long[] scratch, int base, int from, int to, boolean intoScratch, int threshold) {
+            this.a = a;
+            this.scratch = scratch;
+            this.base = base;
+            this.from = from;
+            this.to = to;
+            this.intoScratch = intoScratch;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold) {
+                MergeSort.sort(a, from, to, leafLongScratch(to - from));
+                if (intoScratch) {
+                    System.arraycopy(a, from, scratch, from - base, to - from);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new LongSortTask(a, scratch, base, from, mid, !intoScratch, threshold),
+                    new LongSortTask(a, scratch, base, mid, to, !intoScratch, threshold));
+            long[] src = intoScratch ? a : scratch;
+            long[] dst = intoScratch ? scratch : a;
+            // Positions in scratch are relative to base
+            int srcShift = intoScratch ? 0 : base;
+            int dstShift = intoScratch ? base : 0;
+            new LongMergeTask(src, from - srcShift, mid - srcShift, mid - srcShift, to - srcShift, dst, from - dstShift,
+                    threshold).compute();
+        }
+    }
+
+    // Stable merge of src[lo1..hi1) and src[lo2..hi2) into dst starting at dlo
+    static final class LongMergeTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] src;
+        private final int lo1;
+        private final int hi1;
+        private final int lo2;
+        private final int hi2;
+        private final long[] dst;
+        private final int dlo;
+        private final int threshold;
+
+        LongMergeTask(long[] src, int lo1, int hi1, int lo2, int hi2, long[] dst, int dlo, int threshold) {
+            this.src = src;
+            this.lo1 = lo1;
+            this.hi1 = hi1;
+            this.lo2 = lo2;
+            this.hi2 = hi2;
+            this.dst = dst;
+            this.dlo = dlo;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            int n1 = hi1 - lo1;
+            int n2 = hi2 - lo2;
+            if (n1 + n2 <= threshold || n1 == 0 || n2 == 0) {
+                MergeSort.mergeRuns(src, lo1, hi1, lo2, hi2, dst, dlo);
+                return;
+            }
+            int m1;
+            int m2;
+            if (n1 >= n2) {
+                m1 = (lo1 + hi1) >>> 1;
+                m2 = lowerBound(src, lo2, hi2, src[m1]);
+            } else {
+                m2 = (lo2 + hi2) >>> 1;
+                m1 = upperBound(src, lo1, hi1, src[m2]);
+            }
+            int split = dlo + (m1 - lo1) + (m2 - lo2);
+            invokeAll(new LongMergeTask(src, lo1, m1, lo2, m2, dst, dlo, threshold),
+                    new LongMergeTask(src, m1, hi1, m2, hi2, dst, split, threshold));
+        }
+    }
+
+    // First index in a[lo..hi) whose item is not less than key
+    static int lowerBound(int[] a, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // First index in a[lo..hi) whose item is greater than key
+    static int upperBound(int[] a, int lo, int hi, int key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static int lowerBound(long[] a, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] < key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    static int upperBound(long[] a, int lo, int hi, long key) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    // Leaf sorts run concurrently, so each worker thread merges through its own small buffer
+    private static final ThreadLocal<int[]> INT_LEAF_SCRATCH = ThreadLocal.withInitial(() -> new int[0]);
+    private static final ThreadLocal<long[]> LONG_LEAF_SCRATCH = ThreadLocal.withInitial(() -> new long[0]);
+
+    private static int[] leafScratch(int length) {
+        int[] buffer = INT_LEAF_SCRATCH.get();
+        if (buffer.length < length) {
+            buffer = new int[length];
+            INT_LEAF_SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+
+    private static long[] leafLongScratch(int length) {
+        long[] buffer = LONG_LEAF_SCRATCH.get();
+        if (buffer.length < length) {
+            buffer = new long[length];
+            LONG_LEAF_SCRATCH.set(buffer);
+        }
+        return buffer;
+    }
+}
@@ -0,0 +1,417 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+// Fork/join quicksort for large int[] and long[] arrays that sorts in place, for when the
+// O(n) scratch buffer of ParallelMergeSort does not fit the memory budget.
+//
+// Each task partitions its range around a ninther pivot and forks the two sides as new
+// tasks; idle workers steal them. Ranges of at most the threshold are sorted sequentially
+// with QuickSort's introsort, and a range that is still being split after 2*log2(n) levels
+// is handed to it as well, which bounds the worst case.
+//
+// Partitioning the whole array on one thread would leave every other worker idle at the
+// top of the recursion, so ranges of at least a 1/parallelism share of the input are
+// partitioned by blocks: each worker partitions one block of the range in place, and the
+// keys that ended up on the wrong side of the combined split point are then swapped pairwise,
+// again in parallel. Both steps touch every key at most twice and need no scratch.
+public class ParallelQuickSort {
+
+    // Ranges at or below this size are sorted on a single thread
+    public static final int DEFAULT_THRESHOLD = 1 << 13;
+
+    // Ranges below this size are never partitioned by blocks
+    static final int MIN_BLOCK_PARTITION = 1 << 16;
+
+    // Partitions above this size pick the pivot with Tukey's ninther
+    private static final int NINTHER_THRESHOLD = 128;
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        sort(array);
+        MergeSort.printArray(array);
+    }
+
+    // Sorts the given array in place on the common pool
+    public static void sort(int[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) in place on the given pool. Ranges of at most threshold elements are
+    // handled sequentially; lower values expose more parallelism at the price of more tasks.
+    public static void sort(int[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY);
+            return;
+        }
+        int blockPartition = blockPartitionSize(to - from, pool.getParallelism());
+        pool.invoke(new IntSortTask(a, from, to, 2 * QuickSort.log2(to - from), threshold, blockPartition));
+    }
+
+    // Sorts the given array in place on the common pool
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) in place on the given pool
+    public static void sort(long[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            PrimitiveSorts.quickSort(a, from, to);
+            return;
+        }
+        int blockPartition = blockPartitionSize(to - from, pool.getParallelism());
+        pool.invoke(new LongSortTask(a, from, to, 2 * QuickSort.log2(to - from), threshold, blockPartition));
+    }
+
+    // Smallest range partitioned by blocks: one worker's share of the input, so only the
+    // levels with fewer tasks than workers pay for the extra pass
+    private static int blockPartitionSize(int n, int parallelism) {
+        return parallelism < 2 ? Integer.MAX_VALUE : Math.max(MIN_BLOCK_PARTITION, n / parallelism);
+    }
+
+    // Splits the range [from, to) into parts blocks of nearly equal size; block i is
+    // [bounds[i], bounds[i + 1])
+    private static int[] blocks(int from, int to, int parts) {
+        int[] bounds = new int[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = from + (int) ((long) (to - from) * i / parts);
+        }
+        return bounds;
+    }
+
+    // Number of blocks for a block partition of n keys, each at least half the minimum size
+    private static int blockCount(int n, int parallelism) {
+        return Math.max(2, Math.min(parallelism, n / (MIN_BLOCK_PARTITION / 2)));
+    }
+
+    // After every block [bounds[i], bounds[i + 1]) has been split at splits[i], the keys in
+    // [bounds[i], splits[i]) belong before mid and the others at or after it. Adds to left
+    // the ranges of keys that belong before mid but lie after it, and to right the ranges of
+    // keys that lie before mid but belong after it. Both hold the same number of keys, which
+    // is returned.
+    private static int misplaced(int[] bounds, int[] splits, int mid, List<int[]> left, List<int[]> right) {
+        int count = 0;
+        for (int i = 0; i < splits.length; i++) {
+            // Keys below the pivot that lie at or after mid
+            int lo = Math.max(bounds[i], mid);
+            if (lo < splits[i]) {
+                left.add(new int[] {lo, splits[i]});
+                count += splits[i] - lo;
+            }
+            // Keys not below the pivot that lie before mid
+            int hi = Math.min(bounds[i + 1], mid);
+            if (splits[i] < hi) {
+                right.add(new int[] {splits[i], hi});
+            }
+        }
+        return count;
+    }
+
+    // Position of the key with the given rank among the ranges
+    private static int[] locate(List<int[]> ranges, int rank) {
+        int index = 0;
+        while (rank >= ranges.get(index)[1] - ranges.get(index)[0]) {
+            rank -= ranges.get(index)[1] - ranges.get(index)[0];
+            index++;
+        }
+        return new int[] {index, ranges.get(index)[0] + rank};
+    }
+
+    // Sorts a[from..to) in place
+    static final class IntSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int from;
+        private final int to;
+        private final int depthLimit;
+        private final int threshold;
+        private final int blockPartition;
+
+        IntSortTask(int[] a, int from, int to, int depthLimit, int threshold, int blockPartition) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.depthLimit = depthLimit;
+            this.threshold = threshold;
+            this.blockPartition = blockPartition;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold || depthLimit == 0) {
+                QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY);
+                return;
+            }
+            int pivot = a[choosePivot(a, from, to - 1)];
+            int split = partition(pivot);
+            if (split == from) {
+                // Nothing is below the pivot, so it is the minimum: the keys equal to it
+                // collect at the front and are already in place
+                if (pivot == Integer.MAX_VALUE) {
+                    return;
+                }
+                int equal = partition(pivot + 1);
+                if (equal < to) {
+                    new IntSortTask(a, equal, to, depthLimit - 1, threshold, blockPartition).compute();
+                }
+                return;
+            }
+            invokeAll(new IntSortTask(a, from, split, depthLimit - 1, threshold, blockPartition),
+                    new IntSortTask(a, split, to, depthLimit - 1, threshold, blockPartition));
+        }
+
+        // Moves the keys below bound to the front of the range and returns the index of the
+        // first other key
+        private int partition(int bound) {
+            if (to - from < blockPartition) {
+                return partitionBlock(a, from, to, bound);
+            }
+            int[] bounds = blocks(from, to, blockCount(to - from, getPool().getParallelism()));
+            int[] splits = new int[bounds.length - 1];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < splits.length; i++) {
+                int block = i;
+                tasks.add(ForkJoinTask.adapt(() -> splits[block] = partitionBlock(a, bounds[block], bounds[block + 1], bound)));
+            }
+            invokeAll(tasks);
+
+            int mid = from;
+            for (int i = 0; i < splits.length; i++) {
+                mid += splits[i] - bounds[i];
+            }
+            List<int[]> left = new ArrayList<>();
+            List<int[]> right = new ArrayList<>();
+            int count = misplaced(bounds, splits, mid, left, right);
+            if (count > 0) {
+                tasks.clear();
+                int parts = Math.min(splits.length, Math.max(1, count / (MIN_BLOCK_PARTITION / 2)));
+                for (int i = 0; i < parts; i++) {
+                    int rankFrom = (int) ((long) count * i / parts);
+                    int rankTo = (int) ((long) count * (i + 1) / parts);
+                    tasks.add(ForkJoinTask.adapt(() -> swapRanks(left, right, rankFrom, rankTo)));
+                }
+                invokeAll(tasks);
+            }
+            return mid;
+        }
+
+        // Swaps the misplaced keys with ranks rankFrom..rankTo of left with those of right
+        private void swapRanks(List<int[]> left, List<int[]> right, int rankFrom, int rankTo) {
+            int[] l = locate(left, rankFrom);
+            int[] r = locate(right, rankFrom);
+            int li = l[0];
+            int lp = l[1];
+            int ri = r[0];
+            int rp = r[1];
+            for (int remaining = rankTo - rankFrom; remaining > 0; ) {
+                int run = Math.min(remaining, Math.min(left.get(li)[1] - lp, right.get(ri)[1] - rp));
+                for (int k = 0; k < run; k++) {
+                    int temp = a[lp + k];
+                    a[lp + k] = a[rp + k];
+                    a[rp + k] = temp;
+                }
+                remaining -= run;
+                lp += run;
+                rp += run;
+                if (lp == left.get(li)[1] && remaining > 0) {
+                    lp = left.get(++li)[0];
+                }
+                if (rp == right.get(ri)[1] && remaining > 0) {
+                    rp = right.get(++ri)[0];
+                }
+            }
+        }
+    }
+
+    // Moves the keys of a[from..to) below bound to the front and returns the index of the
+    // first other key
+    static int partitionBlock(int[] a, int from, int to, int bound) {
+        int i = from;
+        int j = to - 1;
+        while (true) {
+            while (i <= j && a[i] < bound) {
+                i++;
+            }
+            while (i <= j && a[j] >= bound) {
+                j--;
+            }
+            if (i >= j) {
+                return i;
+            }
+            int temp = a[i];
+            a[i++] = a[j];
+            a[j--] = temp;
+        }
+    }
+
+    private static int choosePivot(int[] a, int left, int right) {
+        int mid = (left + right) >>> 1;
+        if (right - left + 1 <= NINTHER_THRESHOLD) {
+            return medianOfThree(a, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int first = medianOfThree(a, left, left + step, left + 2 * step);
+        int middle = medianOfThree(a, mid - step, mid, mid + step);
+        int last = medianOfThree(a, right - 2 * step, right - step, right);
+        return medianOfThree(a, first, middle, last);
+    }
+
+    private static int medianOfThree(int[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    // Sorts a[from..to) in place
+    static final class LongSortTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final int from;
+        private final int to;
+        private final int depthLimit;
+        private final int threshold;
+        private final int blockPartition;
+
+        LongSortTask(long[] a, int from, int to, int depthLimit, int threshold, int blockPartition) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.depthLimit = depthLimit;
+            this.threshold = threshold;
+            this.blockPartition = blockPartition;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= threshold || depthLimit == 0) {
+                PrimitiveSorts.quickSort(a, from, to);
+                return;
+            }
+            long pivot = a[choosePivot(a, from, to - 1)];
+            int split = partition(pivot);
+            if (split == from) {
+                if (pivot == Long.MAX_VALUE) {
+                    return;
+                }
+                int equal = partition(pivot + 1);
+                if (equal < to) {
+                    new LongSortTask(a, equal, to, depthLimit - 1, threshold, blockPartition).compute();
+                }
+                return;
+            }
+            invokeAll(new LongSortTask(a, from, split, depthLimit - 1, threshold, blockPartition),
+                    new LongSortTask(a, split, to, depthLimit - 1, threshold, blockPartition));
+        }
+
+        private int partition(long bound) {
+            if (to - from < blockPartition) {
+                return partitionBlock(a, from, to, bound);
+            }
+            int[] bounds = blocks(from, to, blockCount(to - from, getPool().getParallelism()));
+            int[] splits = new int[bounds.length - 1];
+            List<ForkJoinTask<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < splits.length; i++) {
+                int block = i;
+                tasks.add(ForkJoinTask.adapt(() -> splits[block] = partitionBlock(a, bounds[block], bounds[block + 1], bound)));
+            }
+            invokeAll(tasks);
+
+            int mid = from;
+            for (int i = 0; i < splits.length; i++) {
+                mid += splits[i] - bounds[i];
+            }
+            List<int[]> left = new ArrayList<>();
+            List<int[]> right = new ArrayList<>();
+            int count = misplaced(bounds, splits, mid, left, right);
+            if (count > 0) {
+                tasks.clear();
+                int parts = Math.min(splits.length, Math.max(1, count / (MIN_BLOCK_PARTITION / 2)));
+                for (int i = 0; i < parts; i++) {
+                    int rankFrom = (int) ((long) count * i / parts);
+                    int rankTo = (int) ((long) count * (i + 1) / parts);
+                    tasks.add(ForkJoinTask.adapt(() -> swapRanks(left, right, rankFrom, rankTo)));
+                }
+                invokeAll(tasks);
+            }
+            return mid;
+        }
+
+        private void swapRanks(List<int[]> left, List<int[]> right, int rankFrom, int rankTo) {
+            int[] l = locate(left, rankFrom);
+            int[] r = locate(right, rankFrom);
+            int li = l[0];
+            int lp = l[1];
+            int ri = r[0];
+            int rp = r[1];
+            for (int remaining = rankTo - rankFrom; remaining > 0; ) {
+                int run = Math.min(remaining, Math.min(left.get(li)[1] - lp, right.get(ri)[1] - rp));
+                for (int k = 0; k < run; k++) {
+                    long temp = a[lp + k];
+                    a[lp + k] = a[rp + k];
+                    a[rp + k] = temp;
+                }
+                remaining -= run;
+                lp += run;
+                rp += run;
+                if (lp == left.get(li)[1] && remaining > 0) {
+                    lp = left.get(++li)[0];
+                }
+                if (rp == right.get(ri)[1] && remaining > 0) {
+                    rp = right.get(++ri)[0];
+                }
+            }
+        }
+    }
+
+    static int partitionBlock(long[] a, int from, int to, long bound) {
+        int i = from;
+        int j = to - 1;
+        while (true) {
+            while (i <= j && a[i] < bound) {
+                i++;
+            }
+            while (i <= j && a[j] >= bound) {
+                j--;
+            }
+            if (i >= j) {
+                return i;
+            }
+            long temp = a[i];
+            a[i++] = a[j];
+            a[j--] = temp;
+        }
+    }
+
+    private static int choosePivot(long[] a, int left, int right) {
+        int mid = (left + right) >>> 1;
+        if (right - left + 1 <= NINTHER_THRESHOLD) {
+            return medianOfThree(a, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int first = medianOfThree(a, left, left + step, left + 2 * step);
+        int middle = medianOfThree(a, mid - step, mid, mid + step);
+        int last = medianOfThree(a, right - 2 * step, right - step, right);
+        return medianOfThree(a, first, middle, last);
+    }
+
+    private static int medianOfThree(long[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+}
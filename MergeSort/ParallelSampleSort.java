@@ -0,0 +1,322 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+// Parallel sample sort for very large int[] and long[] arrays on many cores.
+//
+// Fork/join quicksort and merge sort both start with one partition or end with one merge of
+// the whole array. Sample sort instead splits the input into many buckets in a single pass
+// that every worker takes part in:
+//
+//   1. Sample OVERSAMPLE random keys per bucket, sort the sample and take every
+//      OVERSAMPLE-th key as a splitter.
+//   2. Cut the input into one stripe per worker. Each worker classifies the keys of its
+//      stripe by binary search over the splitters, remembers every key's bucket in a byte
+//      and counts the keys per bucket in its own histogram.
+//   3. Prefix sums over the histograms give every (stripe, bucket) pair a private slice of
+//      the scratch array, so the workers scatter their keys without locks or atomics.
+//   4. Every bucket is copied back and sorted on its own with QuickSort, or InsertionSort
+//      when it is tiny; idle workers steal buckets.
+//
+// A splitter that appears more than once in the sample marks a heavy key. Splitters are
+// deduplicated and each gets an equality bucket of its own, which holds only that key and
+// needs no sort, so inputs with few distinct values split as well as random ones.
+//
+// The scatter needs a scratch array of n keys and n bytes for the bucket of every key.
+public class ParallelSampleSort {
+
+    // Ranges at or below this size are sorted on a single thread
+    public static final int DEFAULT_THRESHOLD = 1 << 16;
+
+    // Sample keys drawn per bucket
+    static final int OVERSAMPLE = 32;
+
+    // Buckets per worker, so that work stealing can even out buckets of unequal size
+    static final int BUCKETS_PER_WORKER = 4;
+
+    // At most this many distinct splitters, so bucket indices (2 per splitter plus 1) fit a byte
+    static final int MAX_SPLITTERS = 127;
+
+    // Smallest number of keys per stripe and expected per bucket
+    private static final int MIN_PART = 1 << 12;
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        sort(array);
+        MergeSort.printArray(array);
+    }
+
+    // Sorts the given array on the common pool
+    public static void sort(int[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) on the given pool. Ranges of at most threshold elements are sorted
+    // sequentially with QuickSort.
+    public static void sort(int[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY);
+            return;
+        }
+        pool.invoke(new IntSampleSort(a, from, to, pool.getParallelism()));
+    }
+
+    // Sorts the given array on the common pool
+    public static void sort(long[] array) {
+        sort(array, 0, array.length, ForkJoinPool.commonPool(), DEFAULT_THRESHOLD);
+    }
+
+    // Sorts a[from..to) on the given pool
+    public static void sort(long[] a, int from, int to, ForkJoinPool pool, int threshold) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (threshold < 2) {
+            throw new IllegalArgumentException("Threshold must be at least 2: " + threshold);
+        }
+        if (to - from <= threshold) {
+            PrimitiveSorts.quickSort(a, from, to);
+            return;
+        }
+        pool.invoke(new LongSampleSort(a, from, to, pool.getParallelism()));
+    }
+
+    // Number of buckets between splitters to aim for with n keys
+    private static int bucketCount(int n, int parallelism) {
+        return Math.max(2, Math.min(MAX_SPLITTERS + 1, Math.min(parallelism * BUCKETS_PER_WORKER, n / MIN_PART)));
+    }
+
+    // Splits [from, to) into one stripe per worker; stripe i is [bounds[i], bounds[i + 1])
+    private static int[] stripes(int from, int to, int parallelism) {
+        int parts = Math.max(1, Math.min(parallelism, (to - from) / MIN_PART));
+        int[] bounds = new int[parts + 1];
+        for (int i = 0; i <= parts; i++) {
+            bounds[i] = from + (int) ((long) (to - from) * i / parts);
+        }
+        return bounds;
+    }
+
+    // Turns the per-stripe histograms into write offsets: afterwards counts[s][b] is where
+    // stripe s writes its first key of bucket b, relative to the start of the range. Returns
+    // the bucket bounds, bucket b being [bounds[b], bounds[b + 1]).
+    private static int[] prefixSums(int[][] counts, int buckets) {
+        int[] bounds = new int[buckets + 1];
+        int position = 0;
+        for (int b = 0; b < buckets; b++) {
+            bounds[b] = position;
+            for (int[] stripe : counts) {
+                int count = stripe[b];
+                stripe[b] = position;
+                position += count;
+            }
+        }
+        bounds[buckets] = position;
+        return bounds;
+    }
+
+    // Runs body(0..count-1) as parallel tasks and waits for all of them
+    private static void forEach(int count, IntConsumer body) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(index)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+
+    // Sorts a[from..to) in one round of sampling, scattering and bucket sorts
+    static final class IntSampleSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int from;
+        private final int to;
+        private final int parallelism;
+
+        IntSampleSort(int[] a, int from, int to, int parallelism) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected void compute() {
+            int n = to - from;
+            int[] splitters = splitters(bucketCount(n, parallelism));
+            int buckets = 2 * splitters.length + 1;
+            int[] stripes = stripes(from, to, parallelism);
+            int stripeCount = stripes.length - 1;
+
+            byte[] oracle = new byte[n];
+            int[][] counts = new int[stripeCount][buckets];
+            forEach(stripeCount, s -> {
+                int[] count = counts[s];
+                for (int i = stripes[s]; i < stripes[s + 1]; i++) {
+                    int bucket = classify(splitters, a[i]);
+                    oracle[i - from] = (byte) bucket;
+                    count[bucket]++;
+                }
+            });
+
+            int[] bounds = prefixSums(counts, buckets);
+            int[] scratch = new int[n];
+            forEach(stripeCount, s -> {
+                int[] next = counts[s];
+                for (int i = stripes[s]; i < stripes[s + 1]; i++) {
+                    scratch[next[oracle[i - from] & 0xFF]++] = a[i];
+                }
+            });
+
+            forEach(buckets, b -> {
+                int lo = bounds[b];
+                int hi = bounds[b + 1];
+                System.arraycopy(scratch, lo, a, from + lo, hi - lo);
+                // Odd buckets hold the keys equal to one splitter and are already sorted
+                if ((b & 1) == 0) {
+                    if (hi - lo <= QuickSort.INSERTION_THRESHOLD) {
+                        InsertionSort.insertionSort(a, from + lo, from + hi);
+                    } else {
+                        QuickSort.sort(a, from + lo, from + hi, QuickSort.Partition.TWO_WAY);
+                    }
+                }
+            });
+        }
+
+        // Draws a random sample and returns its distinct quantiles at the bucket boundaries
+        private int[] splitters(int bucketCount) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            int[] sample = new int[bucketCount * OVERSAMPLE];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = a[random.nextInt(from, to)];
+            }
+            QuickSort.sort(sample, 0, sample.length, QuickSort.Partition.TWO_WAY);
+            int[] splitters = new int[bucketCount - 1];
+            int distinct = 0;
+            for (int i = 1; i < bucketCount; i++) {
+                int key = sample[i * OVERSAMPLE];
+                if (distinct == 0 || splitters[distinct - 1] != key) {
+                    splitters[distinct++] = key;
+                }
+            }
+            return Arrays.copyOf(splitters, distinct);
+        }
+    }
+
+    // Bucket of key among the sorted distinct splitters s: 2j for keys between s[j-1] and
+    // s[j], 2j + 1 for keys equal to s[j]
+    static int classify(int[] splitters, int key) {
+        int lo = 0;
+        int length = splitters.length;
+        while (length > 0) {
+            int half = length >>> 1;
+            if (splitters[lo + half] < key) {
+                lo += half + 1;
+                length -= half + 1;
+            } else {
+                length = half;
+            }
+        }
+        return 2 * lo + (lo < splitters.length && splitters[lo] == key ? 1 : 0);
+    }
+
+    // Sorts a[from..to) in one round of sampling, scattering and bucket sorts
+    static final class LongSampleSort extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final long[] a;
+        private final int from;
+        private final int to;
+        private final int parallelism;
+
+        LongSampleSort(long[] a, int from, int to, int parallelism) {
+            this.a = a;
+            this.from = from;
+            this.to = to;
+            this.parallelism = parallelism;
+        }
+
+        @Override
+        protected void compute() {
+            int n = to - from;
+            long[] splitters = splitters(bucketCount(n, parallelism));
+            int buckets = 2 * splitters.length + 1;
+            int[] stripes = stripes(from, to, parallelism);
+            int stripeCount = stripes.length - 1;
+
+            byte[] oracle = new byte[n];
+            int[][] counts = new int[stripeCount][buckets];
+            forEach(stripeCount, s -> {
+                int[] count = counts[s];
+                for (int i = stripes[s]; i < stripes[s + 1]; i++) {
+                    int bucket = classify(splitters, a[i]);
+                    oracle[i - from] = (byte) bucket;
+                    count[bucket]++;
+                }
+            });
+
+            int[] bounds = prefixSums(counts, buckets);
+            long[] scratch = new long[n];
+            forEach(stripeCount, s -> {
+                int[] next = counts[s];
+                for (int i = stripes[s]; i < stripes[s + 1]; i++) {
+                    scratch[next[oracle[i - from] & 0xFF]++] = a[i];
+                }
+            });
+
+            forEach(buckets, b -> {
+                int lo = bounds[b];
+                int hi = bounds[b + 1];
+                System.arraycopy(scratch, lo, a, from + lo, hi - lo);
+                if ((b & 1) == 0) {
+                    if (hi - lo <= PrimitiveSorts.INSERTION_THRESHOLD) {
+                        PrimitiveSorts.insertionSort(a, from + lo, from + hi);
+                    } else {
+                        PrimitiveSorts.quickSort(a, from + lo, from + hi);
+                    }
+                }
+            });
+        }
+
+        private long[] splitters(int bucketCount) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long[] sample = new long[bucketCount * OVERSAMPLE];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = a[random.nextInt(from, to)];
+            }
+            PrimitiveSorts.quickSort(sample);
+            long[] splitters = new long[bucketCount - 1];
+            int distinct = 0;
+            for (int i = 1; i < bucketCount; i++) {
+                long key = sample[i * OVERSAMPLE];
+                if (distinct == 0 || splitters[distinct - 1] != key) {
+                    splitters[distinct++] = key;
+                }
+            }
+            return Arrays.copyOf(splitters, distinct);
+        }
+    }
+
+    static int classify(long[] splitters, long key) {
+        int lo = 0;
+        int length = splitters.length;
+        while (length > 0) {
+            int half = length >>> 1;
+            if (splitters[lo + half] < key) {
+                lo += half + 1;
+                length -= half + 1;
+            } else {
+                length = half;
+            }
+        }
+        return 2 * lo + (lo < splitters.length && splitters[lo] == key ? 1 : 0);
+    }
+}
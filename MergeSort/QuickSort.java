@@ -1,91 +1,590 @@
+import java.util.Objects;
+
 public class QuickSort {
 
-	private static int []a;
+	// Partitions at or below this size are finished with insertion sort by introsort and
+	// rightmostPivotSort. Benchmark/CutoffCalibration measures the best value on a host.
+	public static final int INSERTION_THRESHOLD = 16;
+
+	// Partitions above this size pick the pivot with Tukey's ninther instead of median-of-three
+	private static final int NINTHER_THRESHOLD = 128;
+
 	public static void main(String[] args) {
 		// Get a random generated array
-		a = getArray();
+		int []a = getArray();
 		
 		// prints the given array
-		printArray();
+		printArray(a);
 		
 		// sort the array
-		sort();
+		sort(a);
 		
 		System.out.println("");
 		
 		//prints the sorted array
-		printArray();
+		printArray(a);
 		
 	}
 	
-	// This method sorts an array and internally calls quickSort 
+	// Sorts the array with introsort and its two-way partition, which runs in O(n log n) time
+	// and O(log n) stack whatever the input order
+
+	public static void sort(int []a){
+		sort(a, INSERTION_THRESHOLD);
+	}
+
+	// Sorts the array with two-way introsort, insertion sorting partitions of at most cutoff
+	// items. A cutoff of 1 recurses all the way down to single items.
+	public static void sort(int []a,int cutoff){
+		sort(a, 0, a.length, Partition.TWO_WAY, cutoff);
+	}
+
+	// The textbook quicksort that takes the rightmost item as the pivot, kept as a benchmark
+	// baseline. It goes quadratic on sorted, reversed and all-equal inputs; recursing into the
+	// smaller side only keeps its stack to O(log n) on them.
+
+	public static void rightmostPivotSort(int []a){
+		rightmostPivotSort(a, INSERTION_THRESHOLD);
+	}
 
-	public static void sort(){
+	// The rightmost-pivot quicksort, insertion sorting partitions of at most cutoff items
+	public static void rightmostPivotSort(int []a,int cutoff){
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
 		int left = 0;
 		int right = a.length-1;
 			
-		quickSort(left, right);
+		quickSort(a, left, right, cutoff);
 	}
 	
 	// This method is used to sort the array using quicksort algorithm.
 	// It takes the left and the right end of the array as the two cursors.
 
-	private static void quickSort(int left,int right){
-		
-		// If both cursor scanned the complete array quicksort exits
-		if(left >= right)
-			return;
-		
-		// For simplicity, we took the rightmost item of the array as a pivot 
-		int pivot = a[right];
-		int partition = partition(left, right, pivot);
+	private static void quickSort(int []a,int left,int right,int cutoff){
+		while(true){
+			// Small partitions are cheaper to insertion sort than to keep splitting
+			if(right-left < cutoff){
+				InsertionSort.insertionSort(a, left, right+1);
+				return;
+			}
 		
-		// Recursively, calls the quicksort with the different left and right parameters of the sub-array
-		quickSort(left, partition-1);
-		quickSort(partition+1, right);
+			// For simplicity, we took the rightmost item of the array as a pivot 
+			int pivot = a[right];
+			int partition = partition(a, left, right, pivot);
+
+			// Recursively, calls the quicksort on the smaller sub-array and loops on the larger one
+			if(partition-left < right-partition){
+				quickSort(a, left, partition-1, cutoff);
+				left = partition+1;
+			}else{
+				quickSort(a, partition+1, right, cutoff);
+				right = partition-1;
+			}
+		}
 	}
 	
-	// This method is used to partition the given array and returns the integer which points to the sorted pivot index
+	// This method is used to partition the given array and returns the integer which points to the sorted pivot index.
+	// The pivot value must be stored at a[right].
 
-	private static int partition(int left,int right,int pivot){
+	static int partition(int []a,int left,int right,int pivot){
+		return partition(a, left, right, pivot, SortMetrics.NONE);
+	}
+
+	static int partition(int []a,int left,int right,int pivot,SortMetrics metrics){
 		int leftCursor = left-1;
 		int rightCursor = right;
+		long swaps = 1;
 		while(leftCursor < rightCursor){
                 while(a[++leftCursor] < pivot);
-                while(rightCursor > 0 && a[--rightCursor] > pivot);
+                while(rightCursor > left && a[--rightCursor] > pivot);
 			if(leftCursor >= rightCursor){
 				break;
 			}else{
-				swap(leftCursor, rightCursor);
+				swap(a, leftCursor, rightCursor);
+				swaps++;
 			}
 		}
-		swap(leftCursor, right);
+		swap(a, leftCursor, right);
+		// Each cursor step compared one item with the pivot
+		metrics.comparisons((leftCursor-left+1) + (right-rightCursor));
+		metrics.moves(2*swaps);
+		metrics.passes(1);
 		return leftCursor;
 	}
+
+	// Partitioning scheme used by sort(int[], Partition)
+	public enum Partition {
+		// Hoare-style split around one pivot, as used by sort(int[]); keys equal to the pivot
+		// may end up on both sides
+		TWO_WAY,
+		// Dutch national flag split into < pivot, == pivot and > pivot; the equal block is
+		// final, so inputs with many duplicates shrink quickly
+		THREE_WAY,
+		// Split around two pivots p1 <= p2 into < p1, p1..p2 and > p2
+		DUAL_PIVOT
+	}
+
+	// Introspective sort of the whole array: quicksort with a median-of-three or ninther pivot
+	// that switches to heapsort once the recursion passes 2*log2(n) levels and finishes small
+	// partitions with insertion sort. It runs in O(n log n) time and O(log n) stack whatever
+	// the input order.
+
+	public static void introSort(int []a){
+		introSort(a, 0, a.length);
+	}
+
+	// Sorts a[from..to) with introsort
+	public static void introSort(int []a,int from,int to){
+		sort(a, from, to, Partition.TWO_WAY);
+	}
+
+	// Sorts the array with introsort using the given partitioning scheme
+	public static void sort(int []a,Partition mode){
+		sort(a, 0, a.length, mode);
+	}
+
+	// Sorts a[from..to) with introsort using the given partitioning scheme
+	public static void sort(int []a,int from,int to,Partition mode){
+		sort(a, from, to, mode, SortMetrics.NONE);
+	}
+
+	// Sorts a[from..to) with introsort, reporting comparisons, moves, partition steps and
+	// recursion depth to metrics. Comparisons made while choosing pivots are not counted.
+	public static void sort(int []a,int from,int to,Partition mode,SortMetrics metrics){
+		sort(a, from, to, mode, INSERTION_THRESHOLD, metrics);
+	}
+
+	// Sorts a[from..to) with introsort, insertion sorting partitions of at most cutoff items
+	public static void sort(int []a,int from,int to,Partition mode,int cutoff){
+		sort(a, from, to, mode, cutoff, SortMetrics.NONE);
+	}
+
+	// Sorts a[from..to) with introsort and the given cutoff, reporting to metrics
+	public static void sort(int []a,int from,int to,Partition mode,int cutoff,SortMetrics metrics){
+		Objects.checkFromToIndex(from, to, a.length);
+		Objects.requireNonNull(mode);
+		if(cutoff < 1){
+			throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+		}
+		if(to-from > 1){
+			introSort(a, from, to-1, 2*log2(to-from), mode, cutoff, 0, metrics);
+		}
+	}
+
+	private static void introSort(int []a,int left,int right,int depthLimit,Partition mode,int cutoff,int depth,SortMetrics metrics){
+		metrics.depth(depth);
+		while(right-left+1 > cutoff){
+			if(depthLimit-- == 0){
+				heapSort(a, left, right, metrics);
+				return;
+			}
+
+			// Each scheme recurses into its smaller parts and loops on the largest one to
+			// bound the stack
+			if(mode == Partition.TWO_WAY){
+				// Move the chosen pivot to the right end, where partition expects it
+				swap(a, choosePivot(a, left, right), right);
+				metrics.moves(2);
+				int partition = partition(a, left, right, a[right], metrics);
+
+				if(partition-left < right-partition){
+					introSort(a, left, partition-1, depthLimit, mode, cutoff, depth+1, metrics);
+					left = partition+1;
+				}else{
+					introSort(a, partition+1, right, depthLimit, mode, cutoff, depth+1, metrics);
+					right = partition-1;
+				}
+			}else if(mode == Partition.THREE_WAY){
+				long bounds = threeWayPartition(a, left, right, a[choosePivot(a, left, right)], metrics);
+				int lt = (int)(bounds >>> 32);
+				int gt = (int)bounds;
+
+				if(lt-left < right-gt){
+					introSort(a, left, lt-1, depthLimit, mode, cutoff, depth+1, metrics);
+					left = gt+1;
+				}else{
+					introSort(a, gt+1, right, depthLimit, mode, cutoff, depth+1, metrics);
+					right = lt-1;
+				}
+			}else{
+				long bounds = dualPivotPartition(a, left, right, metrics);
+				int lt = (int)(bounds >>> 32);
+				int gt = (int)bounds;
+
+				// When both pivots are equal the middle part holds only that key
+				boolean middleSorted = a[lt] == a[gt];
+				int leftSize = lt-left;
+				int middleSize = middleSorted ? 0 : gt-lt-1;
+				int rightSize = right-gt;
+				if(rightSize >= leftSize && rightSize >= middleSize){
+					introSort(a, left, lt-1, depthLimit, mode, cutoff, depth+1, metrics);
+					if(!middleSorted){
+						introSort(a, lt+1, gt-1, depthLimit, mode, cutoff, depth+1, metrics);
+					}
+					left = gt+1;
+				}else if(leftSize >= middleSize){
+					if(!middleSorted){
+						introSort(a, lt+1, gt-1, depthLimit, mode, cutoff, depth+1, metrics);
+					}
+					introSort(a, gt+1, right, depthLimit, mode, cutoff, depth+1, metrics);
+					right = lt-1;
+				}else{
+					introSort(a, left, lt-1, depthLimit, mode, cutoff, depth+1, metrics);
+					introSort(a, gt+1, right, depthLimit, mode, cutoff, depth+1, metrics);
+					left = lt+1;
+					right = gt-1;
+				}
+			}
+		}
+		InsertionSort.insertionSort(a, left, right+1, metrics);
+	}
+
+	// Rearranges a[left..right] into items < pivot, items == pivot and items > pivot, and
+	// returns the first and last index of the equal block packed as (first << 32) | last.
+	// The pivot value must occur in the range.
+
+	static long threeWayPartition(int []a,int left,int right,int pivot){
+		return threeWayPartition(a, left, right, pivot, SortMetrics.NONE);
+	}
+
+	static long threeWayPartition(int []a,int left,int right,int pivot,SortMetrics metrics){
+		int lt = left;
+		int i = left;
+		int gt = right;
+		long comparisons = 0;
+		long swaps = 0;
+		while(i <= gt){
+			if(a[i] < pivot){
+				comparisons++;
+				swap(a, lt++, i++);
+				swaps++;
+			}else if(a[i] > pivot){
+				comparisons += 2;
+				swap(a, i, gt--);
+				swaps++;
+			}else{
+				comparisons += 2;
+				i++;
+			}
+		}
+		metrics.comparisons(comparisons);
+		metrics.moves(2*swaps);
+		metrics.passes(1);
+		return ((long)lt << 32) | (gt & 0xFFFFFFFFL);
+	}
+
+	// Picks two pivots p1 <= p2 from the tertiles of a[left..right] and rearranges the range
+	// into items < p1, p1, items in [p1, p2], p2 and items > p2. Returns the final indexes of
+	// p1 and p2 packed as (index1 << 32) | index2.
+
+	static long dualPivotPartition(int []a,int left,int right){
+		return dualPivotPartition(a, left, right, SortMetrics.NONE);
+	}
+
+	static long dualPivotPartition(int []a,int left,int right,SortMetrics metrics){
+		long comparisons = 1;
+		long swaps = 4;
+		int third = (right-left)/3;
+		swap(a, left, left+third);
+		swap(a, right, right-third);
+		if(a[left] > a[right]){
+			swap(a, left, right);
+		}
+		int p1 = a[left];
+		int p2 = a[right];
+
+		int less = left+1;
+		int great = right-1;
+		for(int k=less;k<=great;k++){
+			if(a[k] < p1){
+				comparisons++;
+				swap(a, k, less++);
+				swaps++;
+			}else if(a[k] > p2){
+				comparisons += 2;
+				while(k < great && a[great] > p2){
+					comparisons++;
+					great--;
+				}
+				swap(a, k, great--);
+				swaps++;
+				comparisons++;
+				if(a[k] < p1){
+					swap(a, k, less++);
+					swaps++;
+				}
+			}else{
+				comparisons += 2;
+			}
+		}
+		swap(a, left, --less);
+		swap(a, right, ++great);
+		metrics.comparisons(comparisons);
+		metrics.moves(2*swaps);
+		metrics.passes(1);
+		return ((long)less << 32) | (great & 0xFFFFFFFFL);
+	}
+
+	// Returns the k-th smallest item of the array (k counts from 0). The array is rearranged
+	// so that a[k] holds that item, nothing before it is larger and nothing after it is
+	// smaller. Runs in O(n) expected time like quickselect; a range that keeps splitting
+	// badly switches to median-of-medians pivots, which bound the worst case to O(n).
+
+	public static int select(int []a,int k){
+		return select(a, 0, a.length, k);
+	}
+
+	// Returns the item that belongs at index k once a[from..to) is sorted, with a[from..to)
+	// rearranged as for select(int[], int)
+	public static int select(int []a,int from,int to,int k){
+		Objects.checkFromToIndex(from, to, a.length);
+		if(k < from || k >= to){
+			throw new IndexOutOfBoundsException("Index " + k + " out of range [" + from + ", " + to + ")");
+		}
+		selectRange(a, from, to-1, k, 2*log2(to-from));
+		return a[k];
+	}
+
+	// Partial sort: moves the k smallest items of the array to a[0..k) in ascending order and
+	// leaves the rest in no particular order, in O(n + k log k) time
+	public static void sortTopK(int []a,int k){
+		sortTopK(a, 0, a.length, k);
+	}
+
+	// Moves the k smallest items of a[from..to) to a[from..from+k) in ascending order
+	public static void sortTopK(int []a,int from,int to,int k){
+		Objects.checkFromToIndex(from, to, a.length);
+		if(k < 0 || k > to-from){
+			throw new IllegalArgumentException("k must be between 0 and " + (to-from) + ": " + k);
+		}
+		if(k == 0){
+			return;
+		}
+		if(k < to-from){
+			selectRange(a, from, to-1, from+k-1, 2*log2(to-from));
+		}
+		sort(a, from, from+k, Partition.TWO_WAY);
+	}
+
+	// Introselect: narrows a[left..right] down to the side holding index k, one partition at
+	// a time. Once depthLimit partitions have been spent the pivot is the median of medians.
+	private static void selectRange(int []a,int left,int right,int k,int depthLimit){
+		while(right-left+1 > INSERTION_THRESHOLD){
+			int pivot = depthLimit-- > 0 ? choosePivot(a, left, right) : medianOfMedians(a, left, right);
+			swap(a, pivot, right);
+			int partition = partition(a, left, right, a[right]);
+			if(k == partition){
+				return;
+			}else if(k < partition){
+				right = partition-1;
+			}else{
+				left = partition+1;
+			}
+		}
+		InsertionSort.insertionSort(a, left, right+1);
+	}
+
+	// Returns the index of a pivot that has at least 3/10 of a[left..right] on each side:
+	// the medians of groups of five are gathered at the front and their median selected
+	private static int medianOfMedians(int []a,int left,int right){
+		int medians = left;
+		for(int group=left;group<=right;group+=5){
+			int end = Math.min(group+4, right);
+			InsertionSort.insertionSort(a, group, end+1);
+			swap(a, medians++, (group+end)>>>1);
+		}
+		int middle = (left+medians-1)>>>1;
+		selectRange(a, left, medians-1, middle, 0);
+		return middle;
+	}
+
+	// Returns a permutation that sorts keys: keys[p[0]] <= keys[p[1]] <= ... without moving
+	// the keys. Unlike MergeSort.argsort the order of equal keys is unspecified. A copy of
+	// the keys is sorted along with the indices so partitioning reads memory sequentially.
+
+	public static int[] argsort(int []keys){
+		int n = keys.length;
+		int []sortedKeys = keys.clone();
+		int []index = new int[n];
+		for(int i=0;i<n;i++){
+			index[i] = i;
+		}
+		if(n > 1){
+			argIntroSort(sortedKeys, index, 0, n-1, 2*log2(n));
+		}
+		return index;
+	}
+
+	// introSort over keys[left..right] that applies every move to index as well
+	private static void argIntroSort(int []keys,int []index,int left,int right,int depthLimit){
+		while(right-left+1 > INSERTION_THRESHOLD){
+			if(depthLimit-- == 0){
+				argHeapSort(keys, index, left, right);
+				return;
+			}
+			swap(keys, index, choosePivot(keys, left, right), right);
+			int partition = argPartition(keys, index, left, right);
+			if(partition-left < right-partition){
+				argIntroSort(keys, index, left, partition-1, depthLimit);
+				left = partition+1;
+			}else{
+				argIntroSort(keys, index, partition+1, right, depthLimit);
+				right = partition-1;
+			}
+		}
+		for(int i=left+1;i<=right;i++){
+			int key = keys[i];
+			int item = index[i];
+			int j = i-1;
+			while(j >= left && keys[j] > key){
+				keys[j+1] = keys[j];
+				index[j+1] = index[j];
+				j--;
+			}
+			keys[j+1] = key;
+			index[j+1] = item;
+		}
+	}
+
+	// partition() around the pivot at keys[right], swapping index entries with their keys
+	private static int argPartition(int []keys,int []index,int left,int right){
+		int pivot = keys[right];
+		int leftCursor = left-1;
+		int rightCursor = right;
+		while(leftCursor < rightCursor){
+			while(keys[++leftCursor] < pivot);
+			while(rightCursor > left && keys[--rightCursor] > pivot);
+			if(leftCursor >= rightCursor){
+				break;
+			}else{
+				swap(keys, index, leftCursor, rightCursor);
+			}
+		}
+		swap(keys, index, leftCursor, right);
+		return leftCursor;
+	}
+
+	private static void argHeapSort(int []keys,int []index,int left,int right){
+		int n = right-left+1;
+		for(int i=n/2-1;i>=0;i--){
+			argSiftDown(keys, index, left, i, n);
+		}
+		for(int end=n-1;end>0;end--){
+			swap(keys, index, left, left+end);
+			argSiftDown(keys, index, left, 0, end);
+		}
+	}
+
+	private static void argSiftDown(int []keys,int []index,int offset,int root,int n){
+		int key = keys[offset+root];
+		int item = index[offset+root];
+		int child;
+		while((child = 2*root+1) < n){
+			if(child+1 < n && keys[offset+child] < keys[offset+child+1]){
+				child++;
+			}
+			if(key >= keys[offset+child]){
+				break;
+			}
+			keys[offset+root] = keys[offset+child];
+			index[offset+root] = index[offset+child];
+			root = child;
+		}
+		keys[offset+root] = key;
+		index[offset+root] = item;
+	}
+
+	private static void swap(int []keys,int []index,int i,int j){
+		swap(keys, i, j);
+		swap(index, i, j);
+	}
+
+	// Returns the index of the pivot: median-of-three for mid sized ranges, and the median of
+	// three medians-of-three (Tukey's ninther) for large ones
+	private static int choosePivot(int []a,int left,int right){
+		int mid = (left+right)>>>1;
+		if(right-left+1 <= NINTHER_THRESHOLD){
+			return medianOfThree(a, left, mid, right);
+		}
+		int step = (right-left+1)/8;
+		int first = medianOfThree(a, left, left+step, left+2*step);
+		int middle = medianOfThree(a, mid-step, mid, mid+step);
+		int last = medianOfThree(a, right-2*step, right-step, right);
+		return medianOfThree(a, first, middle, last);
+	}
+
+	private static int medianOfThree(int []a,int i,int j,int k){
+		if(a[i] < a[j]){
+			return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+		}
+		return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+	}
+
+	// Heapsort of a[left..right], used when introSort's recursion gets too deep
+	static void heapSort(int []a,int left,int right){
+		heapSort(a, left, right, SortMetrics.NONE);
+	}
+
+	static void heapSort(int []a,int left,int right,SortMetrics metrics){
+		int n = right-left+1;
+		for(int i=n/2-1;i>=0;i--){
+			siftDown(a, left, i, n, metrics);
+		}
+		for(int end=n-1;end>0;end--){
+			swap(a, left, left+end);
+			metrics.moves(2);
+			siftDown(a, left, 0, end, metrics);
+		}
+		metrics.passes(1);
+	}
+
+	private static void siftDown(int []a,int offset,int root,int n,SortMetrics metrics){
+		int item = a[offset+root];
+		int child;
+		long comparisons = 0;
+		long moves = 1;
+		while((child = 2*root+1) < n){
+			if(child+1 < n){
+				comparisons++;
+				if(a[offset+child] < a[offset+child+1]){
+					child++;
+				}
+			}
+			comparisons++;
+			if(item >= a[offset+child]){
+				break;
+			}
+			a[offset+root] = a[offset+child];
+			moves++;
+			root = child;
+		}
+		a[offset+root] = item;
+		metrics.comparisons(comparisons);
+		metrics.moves(moves);
+	}
+
+	static int log2(int n){
+		return 31-Integer.numberOfLeadingZeros(n);
+	}
 	
 	// This method is used to swap the values between the two given index
 
-	public static void swap(int left,int right){
+	public static void swap(int []a,int left,int right){
 		int temp = a[left];
 		a[left] = a[right];
 		a[right] = temp;
 	}
 	
-	public static void printArray(){
+	public static void printArray(int []a){
 		for(int i : a){
 			System.out.print(i+" ");
 		}
 	}
 	
+	// 10 keys in [0, 100), the same on every run
 	public static int[] getArray(){
-		int size=10;
-		int []array = new int[size];
-		int item = 0;
-		for(int i=0;i<size;i++){
-			item = (int)(Math.random()*100); 
-			array[i] = item;
-		}
-		return array;
+		return WorkloadGenerator.uniform(100).ints(10, 42);
 	}
 
-}
\ No newline at end of file
+}
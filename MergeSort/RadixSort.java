@@ -0,0 +1,320 @@
+import java.util.Objects;
+
+// LSD radix sort for int[] and long[] keys.
+//
+// Keys are sorted on 11-bit digits, least significant first, so an int takes three passes
+// and a long six. The sign bit is flipped before extracting digits, which makes negative
+// keys order before positive ones. All digit histograms are built in a single read of the
+// input, and a pass is skipped when every key has the same digit in that position. Each
+// pass scatters between the array and a scratch buffer, with one copy at the end only when
+// the result ends up in the buffer.
+//
+// Inputs whose values span fewer than COUNTING_RANGE distinct keys, such as the 0..99 range
+// produced by MergeSort.getArray(), are sorted with a counting sort instead.
+public class RadixSort {
+
+    static final int DIGIT_BITS = 11;
+    static final int RADIX = 1 << DIGIT_BITS;
+    static final int DIGIT_MASK = RADIX - 1;
+
+    // Inputs whose max - min is below this are counting sorted when the counts table is not
+    // much larger than the input
+    static final int COUNTING_RANGE = 1 << 16;
+
+    // Ranges at or below this size are finished with insertion sort
+    static final int INSERTION_THRESHOLD = 64;
+
+    // Sign bit of the key held in the high half of a packed long
+    private static final long SIGN_BIT_HIGH = 1L << 63;
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        MergeSort.printArray(array);
+        sort(array);
+        System.out.println();
+        MergeSort.printArray(array);
+    }
+
+    // Sorts the given array in place
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // Sorts a[from..to) in place using a pooled scratch buffer
+    public static void sort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        sort(a, from, to, ScratchBuffers.ints(to - from));
+    }
+
+    // Sorts a[from..to) in place using the caller's scratch buffer, which must hold at least
+    // to-from elements
+    public static void sort(int[] a, int from, int to, int[] scratch) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int n = to - from;
+        if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + n + " needed");
+        }
+        if (n <= INSERTION_THRESHOLD) {
+            InsertionSort.insertionSort(a, from, to);
+            return;
+        }
+
+        int min = a[from];
+        int max = a[from];
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        long range = (long) max - min;
+        if (range == 0) {
+            return;
+        }
+        if (range < COUNTING_RANGE && range <= 4L * n) {
+            countingSort(a, from, to, min, (int) range + 1);
+            return;
+        }
+
+        // Histograms of every digit, gathered in one pass over the flipped keys
+        int passes = (Integer.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < to; i++) {
+            int key = a[i] ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass * RADIX + ((key >>> (pass * DIGIT_BITS)) & DIGIT_MASK)]++;
+            }
+        }
+
+        int[] src = a;
+        int srcFrom = from;
+        int[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int base = pass * RADIX;
+            // All keys share this digit, so the pass would not move anything
+            if (counts[base + (((src[srcFrom] ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK)] == n) {
+                continue;
+            }
+            // Turn the counts into starting offsets
+            int offset = dstFrom;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[base + digit];
+                counts[base + digit] = offset;
+                offset += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                int value = src[i];
+                dst[counts[base + (((value ^ Integer.MIN_VALUE) >>> shift) & DIGIT_MASK)]++] = value;
+            }
+            int[] swapArray = src;
+            src = dst;
+            dst = swapArray;
+            int swapFrom = srcFrom;
+            srcFrom = dstFrom;
+            dstFrom = swapFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, n);
+        }
+    }
+
+    // Sorts a[from..to), whose values lie in [min, min + range), by counting each value.
+    // Also called by SortDispatcher, which has already found min and range.
+    static void countingSort(int[] a, int from, int to, int min, int range) {
+        int[] counts = new int[range];
+        for (int i = from; i < to; i++) {
+            counts[a[i] - min]++;
+        }
+        int index = from;
+        for (int value = 0; value < range; value++) {
+            for (int count = counts[value]; count > 0; count--) {
+                a[index++] = value + min;
+            }
+        }
+    }
+
+    // Returns the permutation that sorts keys: keys[p[0]] <= keys[p[1]] <= ..., with equal
+    // keys in index order. Each key is packed with its index into one long, key in the high
+    // 32 bits and index in the low 32, so one radix sort over the high half moves both.
+    public static int[] argsort(int[] keys) {
+        int n = keys.length;
+        long[] packed = new long[n];
+        for (int i = 0; i < n; i++) {
+            packed[i] = ((long) keys[i] << 32) | i;
+        }
+        sortPackedKeys(packed, 0, n, ScratchBuffers.longs(n));
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = (int) packed[i];
+        }
+        return index;
+    }
+
+    // Stable sort of packed[from..to) by the signed int in the high 32 bits of each element.
+    // The low 32 bits are a payload, such as an index, that moves with its key but does not
+    // affect the order, so only three 11-bit passes are needed instead of six. The scratch
+    // buffer must hold at least to-from elements.
+    public static void sortPackedKeys(long[] packed, int from, int to, long[] scratch) {
+        Objects.checkFromToIndex(from, to, packed.length);
+        int n = to - from;
+        if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + n + " needed");
+        }
+        if (n <= INSERTION_THRESHOLD) {
+            for (int i = from + 1; i < to; i++) {
+                long item = packed[i];
+                int key = (int) (item >> 32);
+                int j = i - 1;
+                while (j >= from && (int) (packed[j] >> 32) > key) {
+                    packed[j + 1] = packed[j];
+                    j--;
+                }
+                packed[j + 1] = item;
+            }
+            return;
+        }
+
+        int passes = (Integer.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < to; i++) {
+            int key = (int) (packed[i] >>> 32) ^ Integer.MIN_VALUE;
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass * RADIX + ((key >>> (pass * DIGIT_BITS)) & DIGIT_MASK)]++;
+            }
+        }
+
+        long[] src = packed;
+        int srcFrom = from;
+        long[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = 32 + pass * DIGIT_BITS;
+            int base = pass * RADIX;
+            if (counts[base + (int) (((src[srcFrom] ^ SIGN_BIT_HIGH) >>> shift) & DIGIT_MASK)] == n) {
+                continue;
+            }
+            int offset = dstFrom;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[base + digit];
+                counts[base + digit] = offset;
+                offset += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                long value = src[i];
+                dst[counts[base + (int) (((value ^ SIGN_BIT_HIGH) >>> shift) & DIGIT_MASK)]++] = value;
+            }
+            long[] swapArray = src;
+            src = dst;
+            dst = swapArray;
+            int swapFrom = srcFrom;
+            srcFrom = dstFrom;
+            dstFrom = swapFrom;
+        }
+        if (src != packed) {
+            System.arraycopy(src, srcFrom, packed, from, n);
+        }
+    }
+
+    // Sorts the given array in place
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // Sorts a[from..to) in place using a pooled scratch buffer
+    public static void sort(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        sort(a, from, to, ScratchBuffers.longs(to - from));
+    }
+
+    // Sorts a[from..to) in place using the caller's scratch buffer, which must hold at least
+    // to-from elements
+    public static void sort(long[] a, int from, int to, long[] scratch) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int n = to - from;
+        if (scratch.length < n) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + n + " needed");
+        }
+        if (n <= INSERTION_THRESHOLD) {
+            PrimitiveSorts.insertionSort(a, from, to);
+            return;
+        }
+
+        long min = a[from];
+        long max = a[from];
+        for (int i = from + 1; i < to; i++) {
+            long value = a[i];
+            if (value < min) {
+                min = value;
+            } else if (value > max) {
+                max = value;
+            }
+        }
+        // A negative difference means the range overflowed and is certainly too wide
+        long range = max - min;
+        if (range == 0) {
+            return;
+        }
+        if (range > 0 && range < COUNTING_RANGE && range <= 4L * n) {
+            countingSort(a, from, to, min, (int) range + 1);
+            return;
+        }
+
+        int passes = (Long.SIZE + DIGIT_BITS - 1) / DIGIT_BITS;
+        int[] counts = new int[passes * RADIX];
+        for (int i = from; i < to; i++) {
+            long key = a[i] ^ Long.MIN_VALUE;
+            for (int pass = 0; pass < passes; pass++) {
+                counts[pass * RADIX + (int) ((key >>> (pass * DIGIT_BITS)) & DIGIT_MASK)]++;
+            }
+        }
+
+        long[] src = a;
+        int srcFrom = from;
+        long[] dst = scratch;
+        int dstFrom = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            int shift = pass * DIGIT_BITS;
+            int base = pass * RADIX;
+            if (counts[base + (int) (((src[srcFrom] ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK)] == n) {
+                continue;
+            }
+            int offset = dstFrom;
+            for (int digit = 0; digit < RADIX; digit++) {
+                int count = counts[base + digit];
+                counts[base + digit] = offset;
+                offset += count;
+            }
+            for (int i = srcFrom, end = srcFrom + n; i < end; i++) {
+                long value = src[i];
+                dst[counts[base + (int) (((value ^ Long.MIN_VALUE) >>> shift) & DIGIT_MASK)]++] = value;
+            }
+            long[] swapArray = src;
+            src = dst;
+            dst = swapArray;
+            int swapFrom = srcFrom;
+            srcFrom = dstFrom;
+            dstFrom = swapFrom;
+        }
+        if (src != a) {
+            System.arraycopy(src, srcFrom, a, from, n);
+        }
+    }
+
+    // Sorts a[from..to), whose values lie in [min, min + range), by counting each value
+    private static void countingSort(long[] a, int from, int to, long min, int range) {
+        int[] counts = new int[range];
+        for (int i = from; i < to; i++) {
+            counts[(int) (a[i] - min)]++;
+        }
+        int index = from;
+        for (int value = 0; value < range; value++) {
+            for (int count = counts[value]; count > 0; count--) {
+                a[index++] = value + min;
+            }
+        }
+    }
+}
@@ -0,0 +1,65 @@
+import java.util.Arrays;
+
+// Per-thread pool of scratch arrays for sorts that need temporary space. Each thread keeps at
+// most one buffer of each kind and grows it on demand, so repeated sorts on the same thread
+// stop allocating once the buffer is large enough. Requests above MAX_POOLED elements get a
+// fresh array that is not kept, so one huge sort does not pin memory for the life of the thread.
+//
+// A buffer is only valid until the same thread asks for another buffer of the same kind, so
+// callers must not hold on to it across calls into other sorts that use the pool.
+public final class ScratchBuffers {
+
+    // Largest buffer, in elements, that is kept between calls
+    public static final int MAX_POOLED = 1 << 20;
+
+    private static final ThreadLocal<ScratchBuffers> POOL = ThreadLocal.withInitial(ScratchBuffers::new);
+
+    private int[] ints = new int[0];
+    private long[] longs = new long[0];
+    private Object[] objects = new Object[0];
+
+    private ScratchBuffers() {
+    }
+
+    // Returns an int[] of at least the given length; contents are undefined
+    public static int[] ints(int length) {
+        if (length > MAX_POOLED) {
+            return new int[length];
+        }
+        ScratchBuffers pool = POOL.get();
+        if (pool.ints.length < length) {
+            pool.ints = new int[length];
+        }
+        return pool.ints;
+    }
+
+    // Returns a long[] of at least the given length; contents are undefined
+    public static long[] longs(int length) {
+        if (length > MAX_POOLED) {
+            return new long[length];
+        }
+        ScratchBuffers pool = POOL.get();
+        if (pool.longs.length < length) {
+            pool.longs = new long[length];
+        }
+        return pool.longs;
+    }
+
+    // Returns an Object[] of at least the given length. Callers must clear the slots they
+    // used with release(Object[], int) so the pool does not keep their objects alive.
+    public static Object[] objects(int length) {
+        if (length > MAX_POOLED) {
+            return new Object[length];
+        }
+        ScratchBuffers pool = POOL.get();
+        if (pool.objects.length < length) {
+            pool.objects = new Object[length];
+        }
+        return pool.objects;
+    }
+
+    // Clears the first length slots of a buffer obtained from objects(int)
+    public static void release(Object[] buffer, int length) {
+        Arrays.fill(buffer, 0, length, null);
+    }
+}
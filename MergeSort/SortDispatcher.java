@@ -0,0 +1,291 @@
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Picks the sort for an int[] from a cheap sample of the input, so callers do not have to
+// choose between the engines themselves.
+//
+// The profile reads a small, size-dependent sample instead of the whole input:
+//   - presortedness: descents (a[i] > a[i+1]) inside a few windows of consecutive keys give
+//     the expected number of ascending runs, and random pairs i < j give the fraction of
+//     inverted pairs, which is near 0 for sorted, 1/2 for random and 1 for reversed input
+//   - key range and duplicates: the minimum, maximum and number of distinct values of a
+//     random sample of keys
+//
+// Routes, in order of precedence:
+//   INSERTION            at most INSERTION_MAX keys
+//   ADAPTIVE_MERGE       nearly sorted or reversed, or long runs: AdaptiveMergeSort finds
+//                        and merges the runs in close to linear time
+//   COUNTING             the sample suggests a small key range and a full min/max scan
+//                        confirms it is below RadixSort.COUNTING_RANGE and at most 4n;
+//                        the counting sort is run directly with the scanned bounds
+//   RADIX                at least RADIX_MIN keys, where the three radix passes beat
+//                        the n log n comparisons of introsort
+//   INTROSORT_THREE_WAY  smaller inputs with mostly duplicate keys
+//   INTROSORT            everything else
+//
+// Every call returns the Decision with the statistics it was based on, and counts the route
+// taken in process-wide counters, so the choices can be logged and audited.
+public final class SortDispatcher {
+
+    // Inputs of at most this size are insertion sorted without profiling
+    static final int INSERTION_MAX = 32;
+
+    // Inputs of at least this size are radix sorted when nothing cheaper applies
+    static final int RADIX_MIN = 1 << 10;
+
+    // Inverted-pair fraction at or below which (or at or above 1 minus which) the input
+    // counts as nearly sorted (or nearly reversed)
+    static final double PRESORTED_INVERSIONS = 0.01;
+
+    // Mean run length at or above which the input counts as made of long runs
+    static final int LONG_RUN = 32;
+
+    // Fraction of duplicate sample keys at or above which introsort partitions three ways
+    static final double DUPLICATE_RATIO = 0.5;
+
+    // Upper bounds of the sample, reached from 16 * SAMPLE_KEYS keys on
+    static final int WINDOWS = 16;
+    static final int WINDOW = 32;
+    static final int SAMPLE_KEYS = 256;
+
+    private static final LongAdder[] ROUTE_COUNTS = new LongAdder[Route.values().length];
+
+    static {
+        for (int i = 0; i < ROUTE_COUNTS.length; i++) {
+            ROUTE_COUNTS[i] = new LongAdder();
+        }
+    }
+
+    private SortDispatcher() {
+    }
+
+    public static void main(String[] args) {
+        int[] array = MergeSort.getArray();
+        Decision decision = sort(array);
+        MergeSort.printArray(array);
+        System.out.println();
+        System.out.println(decision);
+    }
+
+    // The engines a decision can route to
+    public enum Route {
+        INSERTION, ADAPTIVE_MERGE, COUNTING, RADIX, INTROSORT_THREE_WAY, INTROSORT
+    }
+
+    // Sample statistics of an input range
+    public static final class Profile {
+        public final int size;
+        // Adjacent pairs inspected and how many of them descend
+        public final int pairs;
+        public final int descents;
+        // Expected number of ascending runs over the whole range
+        public final long estimatedRuns;
+        // Fraction of sampled pairs i < j with a[i] > a[j]
+        public final double inversionRatio;
+        // Smallest and largest sampled key; the true range can only be wider
+        public final int sampleMin;
+        public final int sampleMax;
+        // Fraction of sampled keys that repeat another sampled key
+        public final double duplicateRatio;
+
+        Profile(int size, int pairs, int descents, double inversionRatio, int sampleMin, int sampleMax,
+                double duplicateRatio) {
+            this.size = size;
+            this.pairs = pairs;
+            this.descents = descents;
+            this.estimatedRuns = pairs == 0 ? 1 : 1 + Math.round((double) descents / pairs * (size - 1));
+            this.inversionRatio = inversionRatio;
+            this.sampleMin = sampleMin;
+            this.sampleMax = sampleMax;
+            this.duplicateRatio = duplicateRatio;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("size=%d runs~%d (%d/%d descents) inversions~%.3f range>=[%d, %d] duplicates~%.3f",
+                    size, estimatedRuns, descents, pairs, inversionRatio, sampleMin, sampleMax, duplicateRatio);
+        }
+    }
+
+    // The route chosen for an input, the statistics behind it and the rule that fired
+    public static final class Decision {
+        public final Route route;
+        // Null for inputs too small to profile
+        public final Profile profile;
+        public final String reason;
+        // Smallest key and number of values in [min, max], found by the full scan that
+        // confirms a COUNTING route; unused by the other routes
+        final int min;
+        final int range;
+
+        Decision(Route route, Profile profile, String reason) {
+            this(route, profile, reason, 0, 0);
+        }
+
+        Decision(Route route, Profile profile, String reason, int min, int range) {
+            this.route = route;
+            this.profile = profile;
+            this.reason = reason;
+            this.min = min;
+            this.range = range;
+        }
+
+        @Override
+        public String toString() {
+            return route + " (" + reason + ")" + (profile == null ? "" : ": " + profile);
+        }
+    }
+
+    // Sorts the array with the engine its profile calls for
+    public static Decision sort(int[] a) {
+        return sort(a, 0, a.length, SortMetrics.NONE);
+    }
+
+    // Sorts a[from..to) with the engine its profile calls for
+    public static Decision sort(int[] a, int from, int to) {
+        return sort(a, from, to, SortMetrics.NONE);
+    }
+
+    // Sorts a[from..to) and passes metrics on to the engines that report them (insertion
+    // and introsort); the other routes record nothing
+    public static Decision sort(int[] a, int from, int to, SortMetrics metrics) {
+        Decision decision = decide(a, from, to);
+        ROUTE_COUNTS[decision.route.ordinal()].increment();
+        switch (decision.route) {
+            case INSERTION:
+                InsertionSort.insertionSort(a, from, to, metrics);
+                break;
+            case ADAPTIVE_MERGE:
+                AdaptiveMergeSort.sort(a, from, to);
+                break;
+            case COUNTING:
+                RadixSort.countingSort(a, from, to, decision.min, decision.range);
+                break;
+            case RADIX:
+                RadixSort.sort(a, from, to);
+                break;
+            case INTROSORT_THREE_WAY:
+                QuickSort.sort(a, from, to, QuickSort.Partition.THREE_WAY, metrics);
+                break;
+            default:
+                QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY, metrics);
+                break;
+        }
+        return decision;
+    }
+
+    // Chooses the route for a[from..to) without sorting it
+    public static Decision decide(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int n = to - from;
+        if (n <= INSERTION_MAX) {
+            return new Decision(Route.INSERTION, null, "at most " + INSERTION_MAX + " keys");
+        }
+        Profile p = profile(a, from, to);
+        if (p.inversionRatio <= PRESORTED_INVERSIONS) {
+            return new Decision(Route.ADAPTIVE_MERGE, p, "nearly sorted");
+        }
+        if (p.inversionRatio >= 1 - PRESORTED_INVERSIONS) {
+            return new Decision(Route.ADAPTIVE_MERGE, p, "nearly reversed");
+        }
+        if (p.estimatedRuns <= n / LONG_RUN) {
+            return new Decision(Route.ADAPTIVE_MERGE, p, "runs of " + n / p.estimatedRuns + " keys on average");
+        }
+        if ((long) p.sampleMax - p.sampleMin < RadixSort.COUNTING_RANGE && (long) p.sampleMax - p.sampleMin <= 4L * n) {
+            // The sample only bounds the range from below, so confirm it before committing
+            int min = a[from];
+            int max = a[from];
+            for (int i = from + 1; i < to; i++) {
+                min = Math.min(min, a[i]);
+                max = Math.max(max, a[i]);
+            }
+            long range = (long) max - min;
+            if (range < RadixSort.COUNTING_RANGE && range <= 4L * n) {
+                return new Decision(Route.COUNTING, p, "key range " + (range + 1), min, (int) range + 1);
+            }
+        }
+        if (n >= RADIX_MIN) {
+            return new Decision(Route.RADIX, p, "at least " + RADIX_MIN + " keys");
+        }
+        if (p.duplicateRatio >= DUPLICATE_RATIO) {
+            return new Decision(Route.INTROSORT_THREE_WAY, p, "mostly duplicates");
+        }
+        return new Decision(Route.INTROSORT, p, "fewer than " + RADIX_MIN + " keys");
+    }
+
+    // Samples a[from..to). The sample grows with the range up to WINDOWS * WINDOW adjacent
+    // pairs and SAMPLE_KEYS keys and pairs, so profiling costs a few percent of a sort at
+    // most. Positions are drawn from a generator seeded with the size, so equal inputs are
+    // always profiled, and routed, the same way.
+    public static Profile profile(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int n = to - from;
+        if (n < 2) {
+            return new Profile(n, 0, 0, 0, n == 0 ? 0 : a[from], n == 0 ? 0 : a[from], 0);
+        }
+        SplittableRandom random = new SplittableRandom(n);
+
+        // Descents inside evenly spaced windows of adjacent keys
+        int window = Math.min(WINDOW, n);
+        int windows = Math.max(1, Math.min(WINDOWS, n / (8 * window)));
+        int pairs = 0;
+        int descents = 0;
+        for (int w = 0; w < windows; w++) {
+            int start = from + (int) ((long) (n - window) * w / Math.max(1, windows - 1));
+            for (int i = start; i < start + window - 1; i++) {
+                if (a[i] > a[i + 1]) {
+                    descents++;
+                }
+                pairs++;
+            }
+        }
+
+        // Inversions among random pairs and the spread of their keys
+        int samples = Math.max(8, Math.min(SAMPLE_KEYS, n / 16));
+        int[] keys = new int[2 * samples];
+        int inversions = 0;
+        for (int s = 0; s < samples; s++) {
+            int i = random.nextInt(n - 1);
+            int j = i + 1 + random.nextInt(n - 1 - i);
+            int x = a[from + i];
+            int y = a[from + j];
+            if (x > y) {
+                inversions++;
+            }
+            keys[2 * s] = x;
+            keys[2 * s + 1] = y;
+        }
+        QuickSort.sort(keys, 0, keys.length, QuickSort.Partition.TWO_WAY);
+        int distinct = 1;
+        for (int i = 1; i < keys.length; i++) {
+            if (keys[i] != keys[i - 1]) {
+                distinct++;
+            }
+        }
+        return new Profile(n, pairs, descents, (double) inversions / samples, keys[0], keys[keys.length - 1],
+                1 - (double) distinct / keys.length);
+    }
+
+    // Number of sorts routed to the given engine since start or the last reset
+    public static long routeCount(Route route) {
+        return ROUTE_COUNTS[route.ordinal()].sum();
+    }
+
+    // Route counts for every engine
+    public static Map<Route, Long> routeCounts() {
+        Map<Route, Long> counts = new EnumMap<>(Route.class);
+        for (Route route : Route.values()) {
+            counts.put(route, routeCount(route));
+        }
+        return counts;
+    }
+
+    public static void resetRouteCounts() {
+        for (LongAdder count : ROUTE_COUNTS) {
+            count.reset();
+        }
+    }
+}
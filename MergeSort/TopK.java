@@ -0,0 +1,110 @@
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+// Keeps the k smallest (or largest) ints of a stream of any length in O(k) memory.
+//
+// The kept values form a binary max-heap ordered so that the root is the one that would be
+// evicted first. A new value is compared with the root only, so a stream of n values costs
+// O(n log k) in the worst case and close to n comparisons once the heap holds values near
+// the final answer. For data that is already in one array, QuickSort.sortTopK is faster.
+public final class TopK {
+
+    private final int[] heap;
+    private final int flip;
+    private int size;
+
+    // largest selects which end of the order is kept. Keys are stored as value ^ flip, where
+    // flip is -1 (bitwise not, which reverses int order) for largest, so one heap serves both.
+    private TopK(int k, boolean largest) {
+        if (k < 0) {
+            throw new IllegalArgumentException("k must not be negative: " + k);
+        }
+        this.heap = new int[k];
+        this.flip = largest ? -1 : 0;
+    }
+
+    // Keeps the k smallest values offered
+    public static TopK smallest(int k) {
+        return new TopK(k, false);
+    }
+
+    // Keeps the k largest values offered
+    public static TopK largest(int k) {
+        return new TopK(k, true);
+    }
+
+    public void offer(int value) {
+        int key = value ^ flip;
+        if (size < heap.length) {
+            siftUp(size++, key);
+        } else if (size > 0 && key < heap[0]) {
+            siftDown(key);
+        }
+    }
+
+    public void offerAll(int[] values) {
+        for (int value : values) {
+            offer(value);
+        }
+    }
+
+    public void offerAll(PrimitiveIterator.OfInt values) {
+        while (values.hasNext()) {
+            offer(values.nextInt());
+        }
+    }
+
+    // Number of values kept, at most k
+    public int size() {
+        return size;
+    }
+
+    // The kept value that the next better value would evict: the k-th smallest (or largest)
+    // value seen so far once k values have been offered
+    public int peek() {
+        if (size == 0) {
+            throw new NoSuchElementException();
+        }
+        return heap[0] ^ flip;
+    }
+
+    // The kept values best first: ascending for smallest, descending for largest
+    public int[] toSortedArray() {
+        int[] keys = Arrays.copyOf(heap, size);
+        QuickSort.introSort(keys);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] ^= flip;
+        }
+        return keys;
+    }
+
+    private void siftUp(int index, int key) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    // Replaces the root with key and restores the heap below it
+    private void siftDown(int key) {
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && heap[child] < heap[child + 1]) {
+                child++;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
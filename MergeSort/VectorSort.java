@@ -0,0 +1,102 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Objects;
+
+// Sorts int and float keys with the SIMD kernels in Vector/VectorSortKernels when they are
+// usable, and with the scalar QuickSort otherwise.
+//
+// The kernels need the incubating jdk.incubator.vector module, which is compiled and
+// resolved only on request (--add-modules jdk.incubator.vector). They are therefore looked
+// up by name once, when this class is initialised: if the class was not compiled, or the
+// JVM was started without the module, loading it fails and every call takes the scalar
+// path. Either way the result is the same sorted array.
+//
+// Floats are sorted as ints: sortableInt maps each float to an int whose signed order is
+// Float.compare's order, so -0.0 sorts before 0.0 and NaN sorts last. NaNs come back as the
+// canonical NaN.
+public final class VectorSort {
+
+    private static final MethodHandle KERNEL = loadKernel();
+
+    private VectorSort() {
+    }
+
+    // True when sort calls run the SIMD kernels
+    public static boolean isVectorized() {
+        return KERNEL != null;
+    }
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // Sorts a[from..to) in place
+    public static void sort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (KERNEL == null) {
+            QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY);
+            return;
+        }
+        try {
+            KERNEL.invokeExact(a, from, to);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new IllegalStateException(t);
+        }
+    }
+
+    public static void sort(float[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // Sorts a[from..to) in Float.compare order
+    public static void sort(float[] a, int from, int to) {
+        sort(a, from, to, true);
+    }
+
+    // The path taken without the kernels: same transform, scalar QuickSort. Also the
+    // baseline the benchmark compares the vectorized sort against.
+    public static void sortScalar(float[] a) {
+        sort(a, 0, a.length, false);
+    }
+
+    private static void sort(float[] a, int from, int to, boolean vectorized) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int n = to - from;
+        int[] keys = ScratchBuffers.ints(n);
+        for (int i = 0; i < n; i++) {
+            keys[i] = sortableInt(a[from + i]);
+        }
+        if (vectorized) {
+            sort(keys, 0, n);
+        } else {
+            QuickSort.sort(keys, 0, n, QuickSort.Partition.TWO_WAY);
+        }
+        for (int i = 0; i < n; i++) {
+            a[from + i] = fromSortableInt(keys[i]);
+        }
+    }
+
+    // Negative floats have their magnitude bits flipped, so a larger magnitude gives a
+    // smaller int; positive floats already order like their bits
+    static int sortableInt(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7FFFFFFF);
+    }
+
+    static float fromSortableInt(int key) {
+        return Float.intBitsToFloat(key ^ ((key >> 31) & 0x7FFFFFFF));
+    }
+
+    private static MethodHandle loadKernel() {
+        try {
+            Class<?> kernels = Class.forName("VectorSortKernels");
+            return MethodHandles.lookup().findStatic(kernels, "sort",
+                    MethodType.methodType(void.class, int[].class, int.class, int.class));
+        } catch (ReflectiveOperationException | LinkageError e) {
+            return null;
+        }
+    }
+}
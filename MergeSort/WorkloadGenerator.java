@@ -0,0 +1,264 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+// Seeded generator of sort inputs with the shapes that matter to sort engines.
+//
+// A generator is one shape with its parameters, made by one of the factory methods. The
+// keys are produced in blocks of BLOCK keys, and every block draws from its own
+// SplittableRandom, split off a root generator seeded with the caller's seed. The blocks are
+// filled in parallel on the common pool, without a shared generator to contend for. The
+// output depends only on the shape, the size and the seed, whatever the parallelism.
+//
+// write streams the same keys to a file, a few blocks at a time, in the big-endian layout
+// that ExternalSort reads. That way inputs larger than the heap can be produced.
+public final class WorkloadGenerator {
+
+    // Keys per block, the unit of work and of random streams
+    static final int BLOCK = 1 << 16;
+
+    // Largest number of distinct values a Zipf generator tabulates
+    static final int MAX_ZIPF_VALUES = 1 << 24;
+
+    // The key at index i of an input of n keys; random is the stream of i's block
+    private interface KeyFunction {
+        int key(long i, long n, SplittableRandom random);
+    }
+
+    private final String name;
+    private final KeyFunction keys;
+
+    private WorkloadGenerator(String name, KeyFunction keys) {
+        this.name = name;
+        this.keys = keys;
+    }
+
+    // Usage: java WorkloadGenerator uniform|zipf|nearly-sorted|sawtooth|organ-pipe|all-equal|killer
+    //                               <count> <seed> [int|long <output>]
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 && args.length != 5) {
+            System.err.println("Usage: java WorkloadGenerator uniform|zipf|nearly-sorted|sawtooth|organ-pipe"
+                    + "|all-equal|killer <count> <seed> [int|long <output>]");
+            System.exit(2);
+        }
+        WorkloadGenerator generator;
+        switch (args[0]) {
+            case "uniform": generator = uniform(); break;
+            case "zipf": generator = zipf(1 << 16, 1.0); break;
+            case "nearly-sorted": generator = nearlySorted(1.0); break;
+            case "sawtooth": generator = sawtooth(1 << 10); break;
+            case "organ-pipe": generator = organPipe(); break;
+            case "all-equal": generator = allEqual(0); break;
+            case "killer": generator = medianOfThreeKiller(); break;
+            default: throw new IllegalArgumentException("Unknown shape " + args[0]);
+        }
+        long count = Long.parseLong(args[1].replace("_", ""));
+        long seed = Long.parseLong(args[2]);
+        if (args.length == 5) {
+            ExternalSort.KeyType type = ExternalSort.KeyType.valueOf(args[3].toUpperCase());
+            generator.write(Paths.get(args[4]), type, count, seed);
+            System.out.println("Wrote " + count + " " + generator + " keys to " + args[4]);
+        } else {
+            MergeSort.printArray(generator.ints(Math.toIntExact(count), seed));
+        }
+    }
+
+    // Keys drawn uniformly from the whole int range
+    public static WorkloadGenerator uniform() {
+        return new WorkloadGenerator("uniform", (i, n, random) -> random.nextInt());
+    }
+
+    // Keys drawn uniformly from [0, bound)
+    public static WorkloadGenerator uniform(int bound) {
+        return uniform(0, bound);
+    }
+
+    // Keys drawn uniformly from [origin, bound)
+    public static WorkloadGenerator uniform(int origin, int bound) {
+        if (origin >= bound) {
+            throw new IllegalArgumentException("Empty range [" + origin + ", " + bound + ")");
+        }
+        return new WorkloadGenerator("uniform[" + origin + ", " + bound + ")",
+                (i, n, random) -> random.nextInt(origin, bound));
+    }
+
+    // Keys 0..values-1 where key k is drawn with probability proportional to 1 / (k + 1)^s,
+    // so a few small keys make up most of the input
+    public static WorkloadGenerator zipf(int values, double s) {
+        if (values < 1 || values > MAX_ZIPF_VALUES) {
+            throw new IllegalArgumentException("Values must be in [1, " + MAX_ZIPF_VALUES + "]: " + values);
+        }
+        if (!(s >= 0)) {
+            throw new IllegalArgumentException("Exponent must not be negative: " + s);
+        }
+        // Cumulative weights, searched with a uniform draw scaled to the total
+        double[] cumulative = new double[values];
+        double total = 0;
+        for (int k = 0; k < values; k++) {
+            total += Math.pow(k + 1, -s);
+            cumulative[k] = total;
+        }
+        double sum = total;
+        return new WorkloadGenerator("zipf(" + values + ", " + s + ")", (i, n, random) -> {
+            double u = random.nextDouble() * sum;
+            int lo = 0;
+            int hi = values - 1;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (cumulative[mid] <= u) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            return lo;
+        });
+    }
+
+    // 0, 1, ..., n-1
+    public static WorkloadGenerator sorted() {
+        return nearlySorted(0);
+    }
+
+    // n, n-1, ..., 1
+    public static WorkloadGenerator reversed() {
+        return new WorkloadGenerator("reversed", (i, n, random) -> (int) (n - i));
+    }
+
+    // 0, 1, ..., n-1, with each key replaced by a uniform key from [0, n) with probability
+    // noisePercent / 100
+    public static WorkloadGenerator nearlySorted(double noisePercent) {
+        if (!(noisePercent >= 0 && noisePercent <= 100)) {
+            throw new IllegalArgumentException("Noise must be in [0, 100] percent: " + noisePercent);
+        }
+        double noise = noisePercent / 100;
+        return new WorkloadGenerator(noisePercent == 0 ? "sorted" : "sorted+" + noisePercent + "%",
+                (i, n, random) -> noise > 0 && random.nextDouble() < noise ? (int) random.nextLong(n) : (int) i);
+    }
+
+    // Ascending runs 0, 1, ..., run-1 repeated
+    public static WorkloadGenerator sawtooth(int run) {
+        if (run < 1) {
+            throw new IllegalArgumentException("Run length must be positive: " + run);
+        }
+        return new WorkloadGenerator("sawtooth(" + run + ")", (i, n, random) -> (int) (i % run));
+    }
+
+    // Ascending to the middle and descending from there: 0, 1, ..., n/2, ..., 2, 1
+    public static WorkloadGenerator organPipe() {
+        return new WorkloadGenerator("organ-pipe", (i, n, random) -> (int) (i < n / 2 ? i : n - i));
+    }
+
+    // Every key equal to value
+    public static WorkloadGenerator allEqual(int value) {
+        return new WorkloadGenerator("all-equal(" + value + ")", (i, n, random) -> value);
+    }
+
+    // Musser's median-of-3 killer: a permutation of 1..n on which a quicksort that takes the
+    // median of the first, middle and last keys as pivot splits off two keys per partition
+    // and goes quadratic. Introsort should detect it and fall back to its depth limit.
+    public static WorkloadGenerator medianOfThreeKiller() {
+        return new WorkloadGenerator("median-of-3-killer", (i, n, random) -> {
+            long k = n / 2;
+            if (i < k) {
+                long j = i + 1;
+                return (int) ((j & 1) == 1 ? j : k + j - 1);
+            }
+            if (i < 2 * k) {
+                return (int) (2 * (i - k + 1));
+            }
+            return (int) n;
+        });
+    }
+
+    // n keys of this shape, the same for the same n and seed
+    public int[] ints(int n, long seed) {
+        if (n < 0) {
+            throw new IllegalArgumentException("Negative size: " + n);
+        }
+        int[] a = new int[n];
+        SplittableRandom[] randoms = blockRandoms(n, seed);
+        forEach(randoms.length, b -> fill(a, b * BLOCK, (long) b * BLOCK, Math.min(BLOCK, n - b * BLOCK), n, randoms[b]));
+        return a;
+    }
+
+    // The keys of ints(count, seed), as int keys or widened to long keys, written to path in
+    // big-endian order without holding them all in memory
+    public void write(Path path, ExternalSort.KeyType type, long count, long seed) throws IOException {
+        Objects.requireNonNull(type);
+        if (count < 0) {
+            throw new IllegalArgumentException("Negative size: " + count);
+        }
+        int batch = Math.max(1, ForkJoinPool.getCommonPoolParallelism());
+        int[] buffer = new int[batch * BLOCK];
+        SplittableRandom root = new SplittableRandom(seed);
+        try (OutputStream file = Files.newOutputStream(path);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 1 << 16))) {
+            for (long start = 0; start < count; start += buffer.length) {
+                long first = start;
+                int length = (int) Math.min(buffer.length, count - start);
+                int blocks = (length + BLOCK - 1) / BLOCK;
+                SplittableRandom[] randoms = new SplittableRandom[blocks];
+                for (int b = 0; b < blocks; b++) {
+                    randoms[b] = root.split();
+                }
+                forEach(blocks, b -> fill(buffer, b * BLOCK, first + (long) b * BLOCK,
+                        Math.min(BLOCK, length - b * BLOCK), count, randoms[b]));
+                for (int i = 0; i < length; i++) {
+                    if (type == ExternalSort.KeyType.INT) {
+                        out.writeInt(buffer[i]);
+                    } else {
+                        out.writeLong(buffer[i]);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    // Writes the keys at indices first..first+length-1 of an n-key input to a[offset..]
+    private void fill(int[] a, int offset, long first, int length, long n, SplittableRandom random) {
+        for (int i = 0; i < length; i++) {
+            a[offset + i] = keys.key(first + i, n, random);
+        }
+    }
+
+    // One generator per block, split off in block order so that block b always gets the same one
+    private static SplittableRandom[] blockRandoms(int n, long seed) {
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] randoms = new SplittableRandom[(n + BLOCK - 1) / BLOCK];
+        for (int b = 0; b < randoms.length; b++) {
+            randoms[b] = root.split();
+        }
+        return randoms;
+    }
+
+    // Runs body(0..count-1) as parallel tasks and waits for all of them
+    private static void forEach(int count, IntConsumer body) {
+        if (count == 1) {
+            body.accept(0);
+            return;
+        }
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int index = i;
+            tasks.add(ForkJoinTask.adapt(() -> body.accept(index)));
+        }
+        ForkJoinTask.invokeAll(tasks);
+    }
+}
@@ -1,4 +1,7 @@
 import java.util.ArrayList;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.RandomAccess;
 
 public class ArrayList_Sel_Ins {
 
@@ -18,7 +21,7 @@ public class ArrayList_Sel_Ins {
         printArrayList(arr);
         ArrayList<Integer> arr2 = new ArrayList<>(arr);
         
-        int[] counts = selectionSort(arr);
+        long[] counts = selectionSort(arr);
         
         System.out.println("Sorted array:");
         printArrayList(arr);
@@ -32,11 +35,17 @@ public class ArrayList_Sel_Ins {
         System.out.println("Time taken to execute insertionSort: " + SelectionSortTime + " nanoseconds");
     }
 
-    public static int[] selectionSort(ArrayList<Integer> arr) {
+    // Sorts arr and returns {comparisons, swaps, passes}
+    public static long[] selectionSort(ArrayList<Integer> arr) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        selectionSort(arr, metrics);
+        return new long[]{metrics.getComparisons(), metrics.getMoves() / 2, metrics.getPasses()};
+    }
+
+    // Sorts arr, reporting comparisons, moves (two per swap) and passes to metrics
+    public static void selectionSort(ArrayList<Integer> arr, SortMetrics metrics) {
         int n = arr.size();
-        int comparisons = 0;
-        int swaps = 0;
-        int passes = 0;
+        long swaps = 0;
 
         // One by one move the boundary of the unsorted subarray
         for (int i = 0; i < n - 1; i++) {
@@ -44,7 +53,6 @@ public class ArrayList_Sel_Ins {
 
             // Find the minimum element in the unsorted array
             for (int j = i + 1; j < n; j++) {
-                comparisons++;
                 if (arr.get(j) < arr.get(minIndex)) {
                     minIndex = j;
                 }
@@ -57,31 +65,96 @@ public class ArrayList_Sel_Ins {
                 arr.set(i, temp);
                 swaps++;
             }
-            passes++;
         }
-        return new int[]{comparisons, swaps, passes};
+        metrics.comparisons((long) n * (n - 1) / 2);
+        metrics.moves(2 * swaps);
+        metrics.passes(Math.max(0, n - 1));
     }
 
-    public static int[] insertionSort(ArrayList<Integer> arr) {
-        int comparisons = 0;
-        int swaps = 0;
-        int passes = 0;
+    // Sorts arr and returns {comparisons, moves, passes}, where moves counts the elements
+    // written: one per shifted item plus one for each key that changed place
+    public static long[] insertionSort(ArrayList<Integer> arr) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        insertionSort(arr, metrics);
+        return new long[]{metrics.getComparisons(), metrics.getMoves(), metrics.getPasses()};
+    }
+
+    // Sorts arr, reporting comparisons, moves and passes to metrics
+    public static void insertionSort(ArrayList<Integer> arr, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
 
         for (int i = 1; i < arr.size(); i++) {
             int key = arr.get(i);
             int j = i - 1;
 
-            while (j >= 0 && arr.get(j) > key) {
+            while (j >= 0) {
+                comparisons++;
+                if (arr.get(j) <= key) {
+                    break;
+                }
                 arr.set(j + 1, arr.get(j));
+                moves++;
                 j--;
-                comparisons++;
-                swaps++;
             }
             
-            arr.set(j + 1, key);
-            passes++;
+            if (j + 1 != i) {
+                arr.set(j + 1, key);
+                moves++;
+            }
+        }
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, arr.size() - 1));
+    }
+
+    // Sorts a list of Integers without per-step boxing. Each value is unboxed once into a
+    // pooled long[] as (value << 32 | position), the array is sorted with the primitive
+    // engine, and the original Integer objects are written back in their sorted order. No
+    // Integer is created, ties keep their original order, and the list is read and written
+    // by index for RandomAccess lists and with one ListIterator pass otherwise, so linked
+    // lists are not walked per element. Null elements throw NullPointerException.
+    public static void sort(List<Integer> list) {
+        int n = list.size();
+        if (n < 2) {
+            return;
+        }
+        long[] keys = ScratchBuffers.longs(n);
+        Object[] items = ScratchBuffers.objects(n);
+
+        // The pool must not keep the list's Integers alive, even when unboxing a null throws
+        try {
+            if (list instanceof RandomAccess) {
+                for (int i = 0; i < n; i++) {
+                    Integer item = list.get(i);
+                    items[i] = item;
+                    keys[i] = (long) item << 32 | i;
+                }
+            } else {
+                ListIterator<Integer> it = list.listIterator();
+                for (int i = 0; i < n; i++) {
+                    Integer item = it.next();
+                    items[i] = item;
+                    keys[i] = (long) item << 32 | i;
+                }
+            }
+
+            PrimitiveSorts.quickSort(keys, 0, n);
+
+            if (list instanceof RandomAccess) {
+                for (int i = 0; i < n; i++) {
+                    list.set(i, (Integer) items[(int) keys[i]]);
+                }
+            } else {
+                ListIterator<Integer> it = list.listIterator();
+                for (int i = 0; i < n; i++) {
+                    it.next();
+                    it.set((Integer) items[(int) keys[i]]);
+                }
+            }
+        } finally {
+            ScratchBuffers.release(items, n);
         }
-        return new int[]{comparisons, swaps, passes};
     }
 
     public static long timeExecution(Runnable method) {
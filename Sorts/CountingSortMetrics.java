@@ -0,0 +1,71 @@
+// SortMetrics that adds everything up in long counters, so counts do not overflow on large
+// inputs. Not thread safe; use one instance per sort.
+public class CountingSortMetrics implements SortMetrics {
+
+    private long comparisons;
+    private long moves;
+    private long passes;
+    private int maxDepth;
+    private long scratchBytes;
+
+    @Override
+    public void comparisons(long count) {
+        comparisons += count;
+    }
+
+    @Override
+    public void moves(long count) {
+        moves += count;
+    }
+
+    @Override
+    public void passes(long count) {
+        passes += count;
+    }
+
+    @Override
+    public void depth(int depth) {
+        if (depth > maxDepth) {
+            maxDepth = depth;
+        }
+    }
+
+    @Override
+    public void scratchBytes(long bytes) {
+        scratchBytes += bytes;
+    }
+
+    public long getComparisons() {
+        return comparisons;
+    }
+
+    public long getMoves() {
+        return moves;
+    }
+
+    public long getPasses() {
+        return passes;
+    }
+
+    public int getMaxDepth() {
+        return maxDepth;
+    }
+
+    public long getScratchBytes() {
+        return scratchBytes;
+    }
+
+    public void reset() {
+        comparisons = 0;
+        moves = 0;
+        passes = 0;
+        maxDepth = 0;
+        scratchBytes = 0;
+    }
+
+    @Override
+    public String toString() {
+        return "comparisons=" + comparisons + " moves=" + moves + " passes=" + passes
+                + " maxDepth=" + maxDepth + " scratchBytes=" + scratchBytes;
+    }
+}
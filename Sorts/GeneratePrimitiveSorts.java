@@ -0,0 +1,78 @@
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// Generates PrimitiveSorts.java from PrimitiveSorts.template, once per primitive type, so the
+// selection, insertion, merge and quick sort overloads for every type stay in sync.
+//
+// Run from the repository root after editing the template:
+//
+//   java Sorts/GeneratePrimitiveSorts.java Sorts
+//
+// The template uses $type$ for the element type and LESS(x, y) for "x orders before y".
+// Integral types compare with <; floating point types use Double.compare/Float.compare so
+// NaN and -0.0 get the same total order as Arrays.sort.
+public class GeneratePrimitiveSorts {
+
+    static final String[] TYPES = {"int", "long", "double", "float", "short", "byte", "char"};
+
+    private static final Pattern LESS = Pattern.compile("LESS\\(([^,()]+), ([^,()]+)\\)");
+
+    public static void main(String[] args) throws IOException {
+        Path dir = Paths.get(args.length > 0 ? args[0] : ".");
+        String template = new String(Files.readAllBytes(dir.resolve("PrimitiveSorts.template")), StandardCharsets.UTF_8);
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by GeneratePrimitiveSorts from PrimitiveSorts.template. Do not edit by hand.\n");
+        out.append("\n");
+        out.append("import java.util.Objects;\n");
+        out.append("\n");
+        out.append("// Selection, insertion, merge and quick sort for every primitive array type, so callers\n");
+        out.append("// never need to box values into an ArrayList<Integer> just to sort them.\n");
+        out.append("public final class PrimitiveSorts {\n");
+        out.append("\n");
+        out.append("    // Partitions at or below this size are finished with insertion sort by quickSort\n");
+        out.append("    static final int INSERTION_THRESHOLD = 16;\n");
+        out.append("\n");
+        out.append("    // Ranges at or below this size are finished with insertion sort by mergeSort\n");
+        out.append("    static final int MERGE_INSERTION_THRESHOLD = 24;\n");
+        out.append("\n");
+        out.append("    private PrimitiveSorts() {\n");
+        out.append("    }\n");
+        out.append("\n");
+        for (String type : TYPES) {
+            out.append(expand(template, type));
+        }
+        out.append("    private static int log2(int n) {\n");
+        out.append("        return 31 - Integer.numberOfLeadingZeros(n);\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        Files.write(dir.resolve("PrimitiveSorts.java"), out.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static String expand(String template, String type) {
+        String body = template.replace("$type$", type);
+        Matcher matcher = LESS.matcher(body);
+        StringBuffer expanded = new StringBuffer();
+        while (matcher.find()) {
+            String x = matcher.group(1);
+            String y = matcher.group(2);
+            String comparison;
+            if (type.equals("double")) {
+                comparison = "Double.compare(" + x + ", " + y + ") < 0";
+            } else if (type.equals("float")) {
+                comparison = "Float.compare(" + x + ", " + y + ") < 0";
+            } else {
+                comparison = x + " < " + y;
+            }
+            matcher.appendReplacement(expanded, Matcher.quoteReplacement(comparison));
+        }
+        matcher.appendTail(expanded);
+        return expanded.toString();
+    }
+}
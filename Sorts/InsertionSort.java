@@ -5,42 +5,276 @@ public class InsertionSort {
         System.out.println("Original array:");
         printArray(array);
         
-        int[] result = insertionSort(array);
-        int passes = result[0];
-        int comparisons = result[1];
-        int swaps = result[2];
+        long[] result = insertionSort(array);
+        long passes = result[0];
+        long comparisons = result[1];
+        long moves = result[2];
 
         System.out.println("Sorted array:");
         printArray(array);
         System.out.println("Number of passes: " + passes);
         System.out.println("Number of comparisons: " + comparisons);
-        System.out.println("Number of swaps: " + swaps);
+        System.out.println("Number of moves: " + moves);
+
+        int binaryArray[] = {22, 11, 34, -5, 3, 40, 9, 16, 6};
+        result = binaryInsertionSort(binaryArray);
+        System.out.println("Binary insertion sort comparisons: " + result[1]);
+
+        int gallopingArray[] = {22, 11, 34, -5, 3, 40, 9, 16, 6};
+        result = gallopingInsertionSort(gallopingArray);
+        System.out.println("Galloping insertion sort comparisons: " + result[1]);
+    }
+
+    // Sorts the array and returns {passes, comparisons, moves}, where moves counts the
+    // elements written: one per shifted item plus one for each key that changed place
+    public static long[] insertionSort(int[] array) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        insertionSort(array, 0, array.length, metrics);
+        return counts(metrics);
     }
 
-    private static int[] insertionSort(int[] array) {
-        int passes = 0;
-        int comparisons = 0;
-        int swaps = 0;
+    // Insertion sort that finds each insert position by binary search and shifts the larger
+    // items with one System.arraycopy. Uses about log2(i) comparisons per item instead of up
+    // to i. Returns {passes, comparisons, moves} like insertionSort.
+    public static long[] binaryInsertionSort(int[] array) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        binaryInsertionSort(array, metrics);
+        return counts(metrics);
+    }
+
+    // Binary insertion sort of the whole array, reporting to metrics
+    public static void binaryInsertionSort(int[] array, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
         for (int i = 1; i < array.length; i++) {
             int key = array[i];
-            int j = i - 1;
+            int left = 0;
+            int right = i;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (key < array[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            if (left < i) {
+                System.arraycopy(array, left, array, left + 1, i - left);
+                array[left] = key;
+                moves += i - left + 1;
+            }
+        }
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, array.length - 1));
+    }
 
-            //if (array[j] > key)  // Compare the current element with the key
-            if (array[j] > key) {
-                swaps++; // Increment swap count
+    // Insertion sort that searches for each insert position by galloping left from the end
+    // of the sorted part (steps of 1, 2, 4, ...) and then binary searching the last step.
+    // Items already in place cost one comparison and items that move k places cost about
+    // 2*log2(k), which suits nearly sorted input. Returns {passes, comparisons, moves}.
+    public static long[] gallopingInsertionSort(int[] array) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        gallopingInsertionSort(array, metrics);
+        return counts(metrics);
+    }
+
+    // Galloping insertion sort of the whole array, reporting to metrics
+    public static void gallopingInsertionSort(int[] array, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = 1; i < array.length; i++) {
+            int key = array[i];
+            comparisons++;
+            if (array[i - 1] <= key) {
+                continue;
+            }
+
+            // array[bound] > key; find left such that the insert position is in [left, bound]
+            int bound = i - 1;
+            int left = 0;
+            int step = 1;
+            while (bound - step >= 0) {
+                int probe = bound - step;
+                comparisons++;
+                if (array[probe] <= key) {
+                    left = probe + 1;
+                    break;
+                }
+                bound = probe;
+                step <<= 1;
+            }
+            int right = bound;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (key < array[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
             }
 
-            while (j >= 0 && array[j] > key) {
+            System.arraycopy(array, left, array, left + 1, i - left);
+            array[left] = key;
+            moves += i - left + 1;
+        }
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, array.length - 1));
+    }
+
+    // Binary insertion sort for Comparable items such as Tree/Person, where each compareTo
+    // is expensive. Returns {passes, comparisons, moves}; equal items keep their order.
+    public static <T extends Comparable<? super T>> long[] binaryInsertionSort(T[] array) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        binaryInsertionSort(array, metrics);
+        return counts(metrics);
+    }
+
+    // Binary insertion sort of Comparable items, reporting to metrics
+    public static <T extends Comparable<? super T>> void binaryInsertionSort(T[] array, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = 1; i < array.length; i++) {
+            T key = array[i];
+            int left = 0;
+            int right = i;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (key.compareTo(array[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            if (left < i) {
+                System.arraycopy(array, left, array, left + 1, i - left);
+                array[left] = key;
+                moves += i - left + 1;
+            }
+        }
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, array.length - 1));
+    }
+
+    // Galloping insertion sort for Comparable items. Returns {passes, comparisons, moves};
+    // equal items keep their order.
+    public static <T extends Comparable<? super T>> long[] gallopingInsertionSort(T[] array) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        gallopingInsertionSort(array, metrics);
+        return counts(metrics);
+    }
+
+    // Galloping insertion sort of Comparable items, reporting to metrics
+    public static <T extends Comparable<? super T>> void gallopingInsertionSort(T[] array, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = 1; i < array.length; i++) {
+            T key = array[i];
+            comparisons++;
+            if (array[i - 1].compareTo(key) <= 0) {
+                continue;
+            }
+
+            int bound = i - 1;
+            int left = 0;
+            int step = 1;
+            while (bound - step >= 0) {
+                int probe = bound - step;
+                comparisons++;
+                if (array[probe].compareTo(key) <= 0) {
+                    left = probe + 1;
+                    break;
+                }
+                bound = probe;
+                step <<= 1;
+            }
+            int right = bound;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                comparisons++;
+                if (key.compareTo(array[mid]) < 0) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+
+            System.arraycopy(array, left, array, left + 1, i - left);
+            array[left] = key;
+            moves += i - left + 1;
+        }
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, array.length - 1));
+    }
+
+    // Sorts array[from..to) in place without counting; used by the other sorts to finish
+    // small ranges
+    public static void insertionSort(int[] array, int from, int to) {
+        insertionSort(array, from, to, SortMetrics.NONE);
+    }
+
+    // Sorts array[from..to) in place, reporting comparisons, moves and passes to metrics
+    public static void insertionSort(int[] array, int from, int to, SortMetrics metrics) {
+        long comparisons = 0;
+        long moves = 0;
+        for (int i = from + 1; i < to; i++) {
+            int key = array[i];
+            int j = i - 1;
+
+            // Shift the larger items of the sorted part up by one
+            while (j >= from) {
+                comparisons++;
+                if (array[j] <= key) {
+                    break;
+                }
                 array[j + 1] = array[j];
+                moves++;
                 j--;
-                comparisons++; // Increment comparison count
             }
 
-            array[j + 1] = key;
-            passes++;
+            if (j + 1 != i) {
+                array[j + 1] = key;
+                moves++;
+            }
         }
-        int[] result = {passes, comparisons, swaps};
-        return result;
+        metrics.comparisons(comparisons);
+        metrics.moves(moves);
+        metrics.passes(Math.max(0, to - from - 1));
+    }
+
+    // Sorts array[from..to) in place when array[from..start) is already sorted. Each insert
+    // position is found by binary search and the larger items are shifted up with one
+    // System.arraycopy. Equal items keep their order.
+    public static void binaryInsertionSort(int[] array, int from, int to, int start) {
+        if (start == from) {
+            start++;
+        }
+        for (; start < to; start++) {
+            int key = array[start];
+            int left = from;
+            int right = start;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (key < array[mid]) {
+                    right = mid;
+                } else {
+                    left = mid + 1;
+                }
+            }
+            System.arraycopy(array, left, array, left + 1, start - left);
+            array[left] = key;
+        }
+    }
+
+    // {passes, comparisons, moves}, the order insertionSort has always returned
+    private static long[] counts(CountingSortMetrics metrics) {
+        return new long[]{metrics.getPasses(), metrics.getComparisons(), metrics.getMoves()};
     }
 
     public static void printArray(int[] array) {
@@ -49,4 +283,4 @@ public class InsertionSort {
         }
         System.out.println();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,296 @@
+import java.util.Comparator;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+// Selection, insertion, merge and quick sort for object arrays ordered by a Comparator, so
+// records such as Tree/Person can be sorted by any field without rewriting the algorithms.
+// mergeSort and insertionSort are stable; selectionSort and quickSort are not.
+//
+// The mergeSortBy methods are stable merge sorts by an extracted key. They compute each
+// item's key once into a side array (an int[], long[] or Object[]), sort the permutation of
+// the keys and then move the items, so the extractor runs n times instead of on both sides
+// of every one of the n log n comparisons.
+public final class ObjectSorts {
+
+    // Partitions at or below this size are finished with insertion sort by quickSort
+    static final int INSERTION_THRESHOLD = 16;
+
+    private ObjectSorts() {
+    }
+
+    // Selection sort of the whole array
+    public static <T> void selectionSort(T[] a, Comparator<? super T> c) {
+        selectionSort(a, 0, a.length, c);
+    }
+
+    // Selection sort of a[from..to)
+    public static <T> void selectionSort(T[] a, int from, int to, Comparator<? super T> c) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (c.compare(a[j], a[minIndex]) < 0) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static <T> void insertionSort(T[] a, Comparator<? super T> c) {
+        insertionSort(a, 0, a.length, c);
+    }
+
+    // Insertion sort of a[from..to)
+    public static <T> void insertionSort(T[] a, int from, int to, Comparator<? super T> c) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to, c);
+    }
+
+    private static <T> void insertionSortRange(T[] a, int from, int to, Comparator<? super T> c) {
+        for (int i = from + 1; i < to; i++) {
+            T key = a[i];
+            int j = i - 1;
+            while (j >= from && c.compare(key, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static <T> void mergeSort(T[] a, Comparator<? super T> c) {
+        mergeSort(a, 0, a.length, c);
+    }
+
+    // Stable merge sort of a[from..to)
+    public static <T> void mergeSort(T[] a, int from, int to, Comparator<? super T> c) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (to - from > 1) {
+            mergeSortRange(a, new Object[to - from], from, to - 1, c);
+        }
+    }
+
+    private static <T> void mergeSortRange(T[] a, Object[] tempArray, int lowerIndex, int upperIndex, Comparator<? super T> c) {
+        if (lowerIndex == upperIndex) {
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, c);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, c);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex, c);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> void merge(T[] a, Object[] tempArray, int lowerIndex, int higherIndex, int upperIndex, Comparator<? super T> c) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (c.compare(a[higherIndex], a[lowerIndex]) < 0) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        for (int i = 0; i < tempIndex; i++) {
+            a[start + i] = (T) tempArray[i];
+        }
+    }
+
+    // Stable merge sort of the whole array by an int key, e.g. Person::getAge
+    public static <T> void mergeSortByInt(T[] a, ToIntFunction<? super T> key) {
+        mergeSortByInt(a, 0, a.length, key);
+    }
+
+    // Stable merge sort of a[from..to) by an int key
+    public static <T> void mergeSortByInt(T[] a, int from, int to, ToIntFunction<? super T> key) {
+        Objects.checkFromToIndex(from, to, a.length);
+        int[] keys = new int[to - from];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.applyAsInt(a[from + i]);
+        }
+        permute(a, from, MergeSort.argsort(keys));
+    }
+
+    // Stable merge sort of the whole array by a long key
+    public static <T> void mergeSortByLong(T[] a, ToLongFunction<? super T> key) {
+        mergeSortByLong(a, 0, a.length, key);
+    }
+
+    // Stable merge sort of a[from..to) by a long key
+    public static <T> void mergeSortByLong(T[] a, int from, int to, ToLongFunction<? super T> key) {
+        Objects.checkFromToIndex(from, to, a.length);
+        long[] keys = new long[to - from];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.applyAsLong(a[from + i]);
+        }
+        permute(a, from, MergeSort.argsort(keys));
+    }
+
+    // Stable merge sort of the whole array by a double key in Double.compare order
+    public static <T> void mergeSortByDouble(T[] a, ToDoubleFunction<? super T> key) {
+        mergeSortByDouble(a, 0, a.length, key);
+    }
+
+    // Stable merge sort of a[from..to) by a double key in Double.compare order, so -0.0
+    // sorts before 0.0 and NaN last
+    public static <T> void mergeSortByDouble(T[] a, int from, int to, ToDoubleFunction<? super T> key) {
+        Objects.checkFromToIndex(from, to, a.length);
+        long[] keys = new long[to - from];
+        for (int i = 0; i < keys.length; i++) {
+            // Flipping the magnitude bits of negative doubles makes signed long order match
+            long bits = Double.doubleToLongBits(key.applyAsDouble(a[from + i]));
+            keys[i] = bits ^ ((bits >> 63) & Long.MAX_VALUE);
+        }
+        permute(a, from, MergeSort.argsort(keys));
+    }
+
+    // Stable merge sort of the whole array by a Comparable key, e.g. Person::getLastName
+    public static <T, K extends Comparable<? super K>> void mergeSortBy(T[] a, Function<? super T, ? extends K> key) {
+        mergeSortBy(a, 0, a.length, key, Comparator.naturalOrder());
+    }
+
+    // Stable merge sort of a[from..to) by a Comparable key
+    public static <T, K extends Comparable<? super K>> void mergeSortBy(T[] a, int from, int to,
+            Function<? super T, ? extends K> key) {
+        mergeSortBy(a, from, to, key, Comparator.naturalOrder());
+    }
+
+    // Stable merge sort of the whole array by a key in the order of keyOrder
+    public static <T, K> void mergeSortBy(T[] a, Function<? super T, ? extends K> key, Comparator<? super K> keyOrder) {
+        mergeSortBy(a, 0, a.length, key, keyOrder);
+    }
+
+    // Stable merge sort of a[from..to) by a key in the order of keyOrder
+    public static <T, K> void mergeSortBy(T[] a, int from, int to, Function<? super T, ? extends K> key,
+            Comparator<? super K> keyOrder) {
+        Objects.checkFromToIndex(from, to, a.length);
+        // Only ever read back as K, so an Object[] serves as the K[]
+        @SuppressWarnings("unchecked")
+        K[] keys = (K[]) new Object[to - from];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key.apply(a[from + i]);
+        }
+        permute(a, from, MergeSort.argsort(keys, keyOrder));
+    }
+
+    // Rearranges a[from..] so that a[from + k] is the item that was at a[from + order[k]]
+    @SuppressWarnings("unchecked")
+    private static <T> void permute(T[] a, int from, int[] order) {
+        Object[] items = new Object[order.length];
+        for (int k = 0; k < order.length; k++) {
+            items[k] = a[from + order[k]];
+        }
+        for (int k = 0; k < order.length; k++) {
+            a[from + k] = (T) items[k];
+        }
+    }
+
+    // Introsort of the whole array
+    public static <T> void quickSort(T[] a, Comparator<? super T> c) {
+        quickSort(a, 0, a.length, c);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static <T> void quickSort(T[] a, int from, int to, Comparator<? super T> c) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * (31 - Integer.numberOfLeadingZeros(to - from)), c);
+        }
+    }
+
+    private static <T> void introSort(T[] a, int left, int right, int depthLimit, Comparator<? super T> c) {
+        while (right - left + 1 > INSERTION_THRESHOLD) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right, c);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right, c), right);
+            int partition = partition(a, left, right, c);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, c);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, c);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1, c);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static <T> int partition(T[] a, int left, int right, Comparator<? super T> c) {
+        T pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (c.compare(a[++leftCursor], pivot) < 0) {
+            }
+            while (rightCursor > left && c.compare(pivot, a[--rightCursor]) < 0) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static <T> int medianOfThree(T[] a, int i, int j, int k, Comparator<? super T> c) {
+        if (c.compare(a[i], a[j]) < 0) {
+            return c.compare(a[j], a[k]) < 0 ? j : (c.compare(a[i], a[k]) < 0 ? k : i);
+        }
+        return c.compare(a[i], a[k]) < 0 ? i : (c.compare(a[j], a[k]) < 0 ? k : j);
+    }
+
+    private static <T> void heapSort(T[] a, int left, int right, Comparator<? super T> c) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n, c);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end, c);
+        }
+    }
+
+    private static <T> void siftDown(T[] a, int offset, int root, int n, Comparator<? super T> c) {
+        T item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && c.compare(a[offset + child], a[offset + child + 1]) < 0) {
+                child++;
+            }
+            if (c.compare(item, a[offset + child]) < 0) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static <T> void swap(T[] a, int i, int j) {
+        T temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+}
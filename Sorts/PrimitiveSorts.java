@@ -0,0 +1,1491 @@
+// Generated by GeneratePrimitiveSorts from PrimitiveSorts.template. Do not edit by hand.
+
+import java.util.Objects;
+
+// Selection, insertion, merge and quick sort for every primitive array type, so callers
+// never need to box values into an ArrayList<Integer> just to sort them.
+public final class PrimitiveSorts {
+
+    // Partitions at or below this size are finished with insertion sort by quickSort
+    static final int INSERTION_THRESHOLD = 16;
+
+    // Ranges at or below this size are finished with insertion sort by mergeSort
+    static final int MERGE_INSERTION_THRESHOLD = 24;
+
+    private PrimitiveSorts() {
+    }
+
+    // ---------------------------------------------------------------- int
+
+    // Selection sort of the whole array
+    public static void selectionSort(int[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (a[j] < a[minIndex]) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(int[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int key = a[i];
+            int j = i - 1;
+            while (j >= from && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(int[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new int[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(int[] a, int from, int to, int[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(int[] a, int from, int to, int[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(int[] a, int[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(int[] a, int[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (a[higherIndex] < a[lowerIndex]) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(int[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(int[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(int[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(int[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(int[] a, int left, int right) {
+        int pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (a[++leftCursor] < pivot) {
+            }
+            while (rightCursor > left && pivot < a[--rightCursor]) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(int[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static void heapSort(int[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(int[] a, int offset, int root, int n) {
+        int item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && a[offset + child] < a[offset + child + 1]) {
+                child++;
+            }
+            if (item < a[offset + child]) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- long
+
+    // Selection sort of the whole array
+    public static void selectionSort(long[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (a[j] < a[minIndex]) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(long[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(long[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            long key = a[i];
+            int j = i - 1;
+            while (j >= from && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(long[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(long[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new long[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(long[] a, int from, int to, long[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(long[] a, int from, int to, long[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(long[] a, long[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(long[] a, long[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (a[higherIndex] < a[lowerIndex]) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(long[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(long[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(long[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(long[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(long[] a, int left, int right) {
+        long pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (a[++leftCursor] < pivot) {
+            }
+            while (rightCursor > left && pivot < a[--rightCursor]) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(long[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static void heapSort(long[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int offset, int root, int n) {
+        long item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && a[offset + child] < a[offset + child + 1]) {
+                child++;
+            }
+            if (item < a[offset + child]) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- double
+
+    // Selection sort of the whole array
+    public static void selectionSort(double[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(double[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (Double.compare(a[j], a[minIndex]) < 0) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(double[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(double[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(double[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            double key = a[i];
+            int j = i - 1;
+            while (j >= from && Double.compare(key, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(double[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(double[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new double[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(double[] a, int from, int to, double[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(double[] a, int from, int to, double[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(double[] a, double[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(double[] a, double[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (Double.compare(a[higherIndex], a[lowerIndex]) < 0) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(double[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(double[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(double[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(double[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(double[] a, int left, int right) {
+        double pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (Double.compare(a[++leftCursor], pivot) < 0) {
+            }
+            while (rightCursor > left && Double.compare(pivot, a[--rightCursor]) < 0) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(double[] a, int i, int j, int k) {
+        if (Double.compare(a[i], a[j]) < 0) {
+            return Double.compare(a[j], a[k]) < 0 ? j : (Double.compare(a[i], a[k]) < 0 ? k : i);
+        }
+        return Double.compare(a[i], a[k]) < 0 ? i : (Double.compare(a[j], a[k]) < 0 ? k : j);
+    }
+
+    private static void heapSort(double[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(double[] a, int offset, int root, int n) {
+        double item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && Double.compare(a[offset + child], a[offset + child + 1]) < 0) {
+                child++;
+            }
+            if (Double.compare(item, a[offset + child]) < 0) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(double[] a, int i, int j) {
+        double temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- float
+
+    // Selection sort of the whole array
+    public static void selectionSort(float[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(float[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (Float.compare(a[j], a[minIndex]) < 0) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(float[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(float[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(float[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            float key = a[i];
+            int j = i - 1;
+            while (j >= from && Float.compare(key, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(float[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(float[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new float[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(float[] a, int from, int to, float[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(float[] a, int from, int to, float[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(float[] a, float[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(float[] a, float[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (Float.compare(a[higherIndex], a[lowerIndex]) < 0) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(float[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(float[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(float[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(float[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(float[] a, int left, int right) {
+        float pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (Float.compare(a[++leftCursor], pivot) < 0) {
+            }
+            while (rightCursor > left && Float.compare(pivot, a[--rightCursor]) < 0) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(float[] a, int i, int j, int k) {
+        if (Float.compare(a[i], a[j]) < 0) {
+            return Float.compare(a[j], a[k]) < 0 ? j : (Float.compare(a[i], a[k]) < 0 ? k : i);
+        }
+        return Float.compare(a[i], a[k]) < 0 ? i : (Float.compare(a[j], a[k]) < 0 ? k : j);
+    }
+
+    private static void heapSort(float[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(float[] a, int offset, int root, int n) {
+        float item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && Float.compare(a[offset + child], a[offset + child + 1]) < 0) {
+                child++;
+            }
+            if (Float.compare(item, a[offset + child]) < 0) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(float[] a, int i, int j) {
+        float temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- short
+
+    // Selection sort of the whole array
+    public static void selectionSort(short[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(short[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (a[j] < a[minIndex]) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(short[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(short[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(short[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            short key = a[i];
+            int j = i - 1;
+            while (j >= from && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(short[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(short[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new short[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(short[] a, int from, int to, short[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(short[] a, int from, int to, short[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(short[] a, short[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(short[] a, short[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (a[higherIndex] < a[lowerIndex]) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(short[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(short[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(short[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(short[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(short[] a, int left, int right) {
+        short pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (a[++leftCursor] < pivot) {
+            }
+            while (rightCursor > left && pivot < a[--rightCursor]) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(short[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static void heapSort(short[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(short[] a, int offset, int root, int n) {
+        short item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && a[offset + child] < a[offset + child + 1]) {
+                child++;
+            }
+            if (item < a[offset + child]) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(short[] a, int i, int j) {
+        short temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- byte
+
+    // Selection sort of the whole array
+    public static void selectionSort(byte[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(byte[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (a[j] < a[minIndex]) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(byte[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(byte[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(byte[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            byte key = a[i];
+            int j = i - 1;
+            while (j >= from && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(byte[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(byte[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new byte[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(byte[] a, int from, int to, byte[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(byte[] a, int from, int to, byte[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(byte[] a, byte[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(byte[] a, byte[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (a[higherIndex] < a[lowerIndex]) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(byte[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(byte[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(byte[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(byte[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(byte[] a, int left, int right) {
+        byte pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (a[++leftCursor] < pivot) {
+            }
+            while (rightCursor > left && pivot < a[--rightCursor]) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(byte[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static void heapSort(byte[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(byte[] a, int offset, int root, int n) {
+        byte item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && a[offset + child] < a[offset + child + 1]) {
+                child++;
+            }
+            if (item < a[offset + child]) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(byte[] a, int i, int j) {
+        byte temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    // ---------------------------------------------------------------- char
+
+    // Selection sort of the whole array
+    public static void selectionSort(char[] a) {
+        selectionSort(a, 0, a.length);
+    }
+
+    // Selection sort of a[from..to)
+    public static void selectionSort(char[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        for (int i = from; i < to - 1; i++) {
+            int minIndex = i;
+            for (int j = i + 1; j < to; j++) {
+                if (a[j] < a[minIndex]) {
+                    minIndex = j;
+                }
+            }
+            if (minIndex != i) {
+                swap(a, i, minIndex);
+            }
+        }
+    }
+
+    // Insertion sort of the whole array
+    public static void insertionSort(char[] a) {
+        insertionSort(a, 0, a.length);
+    }
+
+    // Insertion sort of a[from..to)
+    public static void insertionSort(char[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        insertionSortRange(a, from, to);
+    }
+
+    private static void insertionSortRange(char[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            char key = a[i];
+            int j = i - 1;
+            while (j >= from && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    // Stable merge sort of the whole array
+    public static void mergeSort(char[] a) {
+        mergeSort(a, 0, a.length);
+    }
+
+    // Stable merge sort of a[from..to), allocating the scratch buffer
+    public static void mergeSort(char[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        mergeSort(a, from, to, new char[to - from]);
+    }
+
+    // Stable merge sort of a[from..to) using the caller's scratch buffer, which must hold
+    // at least to-from elements
+    public static void mergeSort(char[] a, int from, int to, char[] scratch) {
+        mergeSort(a, from, to, scratch, MERGE_INSERTION_THRESHOLD);
+    }
+
+    // Stable merge sort of a[from..to) that insertion sorts ranges of at most cutoff items
+    public static void mergeSort(char[] a, int from, int to, char[] scratch, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (scratch.length < to - from) {
+            throw new IllegalArgumentException("Scratch buffer holds " + scratch.length + " elements, " + (to - from) + " needed");
+        }
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            mergeSortRange(a, scratch, from, to - 1, cutoff);
+        }
+    }
+
+    private static void mergeSortRange(char[] a, char[] tempArray, int lowerIndex, int upperIndex, int cutoff) {
+        if (upperIndex - lowerIndex < cutoff) {
+            insertionSortRange(a, lowerIndex, upperIndex + 1);
+            return;
+        }
+        int midPt = (lowerIndex + upperIndex) >>> 1;
+        mergeSortRange(a, tempArray, lowerIndex, midPt, cutoff);
+        mergeSortRange(a, tempArray, midPt + 1, upperIndex, cutoff);
+        merge(a, tempArray, lowerIndex, midPt + 1, upperIndex);
+    }
+
+    private static void merge(char[] a, char[] tempArray, int lowerIndex, int higherIndex, int upperIndex) {
+        int start = lowerIndex;
+        int midIndex = higherIndex - 1;
+        int tempIndex = 0;
+        while (lowerIndex <= midIndex && higherIndex <= upperIndex) {
+            // Ties are taken from the lower half so equal items keep their order
+            if (a[higherIndex] < a[lowerIndex]) {
+                tempArray[tempIndex++] = a[higherIndex++];
+            } else {
+                tempArray[tempIndex++] = a[lowerIndex++];
+            }
+        }
+        while (lowerIndex <= midIndex) {
+            tempArray[tempIndex++] = a[lowerIndex++];
+        }
+        while (higherIndex <= upperIndex) {
+            tempArray[tempIndex++] = a[higherIndex++];
+        }
+        System.arraycopy(tempArray, 0, a, start, tempIndex);
+    }
+
+    // Introsort of the whole array
+    public static void quickSort(char[] a) {
+        quickSort(a, 0, a.length);
+    }
+
+    // Introsort of a[from..to): median-of-three quicksort with a heapsort fallback past
+    // 2*log2(n) levels and insertion sort for small partitions
+    public static void quickSort(char[] a, int from, int to) {
+        quickSort(a, from, to, INSERTION_THRESHOLD);
+    }
+
+    // Introsort of a[from..to) that insertion sorts partitions of at most cutoff items
+    public static void quickSort(char[] a, int from, int to, int cutoff) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (cutoff < 1) {
+            throw new IllegalArgumentException("Cutoff must be at least 1: " + cutoff);
+        }
+        if (to - from > 1) {
+            introSort(a, from, to - 1, 2 * log2(to - from), cutoff);
+        }
+    }
+
+    private static void introSort(char[] a, int left, int right, int depthLimit, int cutoff) {
+        while (right - left + 1 > cutoff) {
+            if (depthLimit-- == 0) {
+                heapSort(a, left, right);
+                return;
+            }
+            swap(a, medianOfThree(a, left, (left + right) >>> 1, right), right);
+            int partition = partition(a, left, right);
+            if (partition - left < right - partition) {
+                introSort(a, left, partition - 1, depthLimit, cutoff);
+                left = partition + 1;
+            } else {
+                introSort(a, partition + 1, right, depthLimit, cutoff);
+                right = partition - 1;
+            }
+        }
+        insertionSortRange(a, left, right + 1);
+    }
+
+    // Hoare-style partition around the pivot stored at a[right]; returns its final index
+    private static int partition(char[] a, int left, int right) {
+        char pivot = a[right];
+        int leftCursor = left - 1;
+        int rightCursor = right;
+        while (true) {
+            while (a[++leftCursor] < pivot) {
+            }
+            while (rightCursor > left && pivot < a[--rightCursor]) {
+            }
+            if (leftCursor >= rightCursor) {
+                break;
+            }
+            swap(a, leftCursor, rightCursor);
+        }
+        swap(a, leftCursor, right);
+        return leftCursor;
+    }
+
+    private static int medianOfThree(char[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static void heapSort(char[] a, int left, int right) {
+        int n = right - left + 1;
+        for (int i = n / 2 - 1; i >= 0; i--) {
+            siftDown(a, left, i, n);
+        }
+        for (int end = n - 1; end > 0; end--) {
+            swap(a, left, left + end);
+            siftDown(a, left, 0, end);
+        }
+    }
+
+    private static void siftDown(char[] a, int offset, int root, int n) {
+        char item = a[offset + root];
+        int child;
+        while ((child = 2 * root + 1) < n) {
+            if (child + 1 < n && a[offset + child] < a[offset + child + 1]) {
+                child++;
+            }
+            if (item < a[offset + child]) {
+                a[offset + root] = a[offset + child];
+                root = child;
+            } else {
+                break;
+            }
+        }
+        a[offset + root] = item;
+    }
+
+    private static void swap(char[] a, int i, int j) {
+        char temp = a[i];
+        a[i] = a[j];
+        a[j] = temp;
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+}
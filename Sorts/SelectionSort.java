@@ -6,7 +6,7 @@ public class SelectionSort {
         System.out.println("Original array:");
         printArray(arr);
         
-        int[] counts = selectionSort(arr);
+        long[] counts = selectionSort(arr);
         
         System.out.println("Sorted array:");
         printArray(arr);
@@ -15,11 +15,17 @@ public class SelectionSort {
         System.out.println("Number of passes: " + counts[2]);
     }
 
-    public static int[] selectionSort(int[] arr) {
+    // Sorts arr and returns {comparisons, swaps, passes}
+    public static long[] selectionSort(int[] arr) {
+        CountingSortMetrics metrics = new CountingSortMetrics();
+        selectionSort(arr, metrics);
+        return new long[]{metrics.getComparisons(), metrics.getMoves() / 2, metrics.getPasses()};
+    }
+
+    // Sorts arr, reporting comparisons, moves (two per swap) and passes to metrics
+    public static void selectionSort(int[] arr, SortMetrics metrics) {
         int n = arr.length;
-        int comparisons = 0;
-        int swaps = 0;
-        int passes = 0;
+        long swaps = 0;
 
         // One by one move the boundary of the unsorted subarray
         for (int i = 0; i < n - 1; i++) {
@@ -27,7 +33,6 @@ public class SelectionSort {
 
             // Find the minimum element in the unsorted array
             for (int j = i + 1; j < n; j++) {
-                comparisons++;
                 if (arr[j] < arr[minIndex]) {
                     minIndex = j;
                 }
@@ -40,9 +45,11 @@ public class SelectionSort {
                 arr[i] = temp;
                 swaps++;
             }
-            passes++;
         }
-        return new int[]{comparisons, swaps, passes};
+        // Pass i compares the remaining n-1-i items
+        metrics.comparisons((long) n * (n - 1) / 2);
+        metrics.moves(2 * swaps);
+        metrics.passes(Math.max(0, n - 1));
     }
 
     public static void printArray(int[] arr) {
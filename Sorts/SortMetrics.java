@@ -0,0 +1,52 @@
+// Listener for the work a sort performs. Sorts that accept a SortMetrics report every key
+// comparison, every element write, each completed pass, the recursion depth they reach and
+// the scratch memory they allocate.
+//
+// Pass NONE when nothing should be recorded. Its methods are empty and NONE is a constant, so
+// once the JIT inlines the calls they compile to nothing and the sort runs as fast as an
+// uninstrumented one. CountingSortMetrics keeps long totals for diagnostics and tests.
+public interface SortMetrics {
+
+    // Records nothing
+    SortMetrics NONE = new None();
+
+    // count more key comparisons were made
+    void comparisons(long count);
+
+    // count more elements were written into the array being sorted; a swap is two moves
+    void moves(long count);
+
+    // count more passes (outer loop iterations, merges or partition steps) completed
+    void passes(long count);
+
+    // Recursion reached the given depth, with the top level at depth 0
+    void depth(int depth);
+
+    // bytes more of scratch memory were allocated for the sort
+    void scratchBytes(long bytes);
+
+    final class None implements SortMetrics {
+        private None() {
+        }
+
+        @Override
+        public void comparisons(long count) {
+        }
+
+        @Override
+        public void moves(long count) {
+        }
+
+        @Override
+        public void passes(long count) {
+        }
+
+        @Override
+        public void depth(int depth) {
+        }
+
+        @Override
+        public void scratchBytes(long bytes) {
+        }
+    }
+}
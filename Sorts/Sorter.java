@@ -0,0 +1,22 @@
+import java.util.Comparator;
+
+// A sorting algorithm that can be driven through one interface, whatever it is implemented
+// with. Implementations are stateless, so one instance may be shared between threads; look
+// them up by name in Sorters.
+public interface Sorter<T> {
+
+    // Name the sorter is registered under in Sorters
+    String name();
+
+    // Sorts the array in the order given by the comparator
+    void sort(T[] a, Comparator<? super T> c);
+
+    // Sorts the array in ascending order
+    void sort(int[] a);
+
+    // Sorts the array in ascending order
+    void sort(long[] a);
+
+    // Sorts the array in ascending order, with NaN last and -0.0 before 0.0 as in Arrays.sort
+    void sort(double[] a);
+}
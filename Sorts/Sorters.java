@@ -0,0 +1,164 @@
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Registry of Sorter implementations by name. The built in engines are "selection",
+// "insertion", "merge" and "quick"; more can be added with register().
+public final class Sorters {
+
+    private static final Map<String, Sorter<?>> REGISTRY = new ConcurrentHashMap<>();
+    private static final List<String> NAMES = new ArrayList<>();
+
+    static {
+        register(new SelectionSorter<>());
+        register(new InsertionSorter<>());
+        register(new MergeSorter<>());
+        register(new QuickSorter<>());
+    }
+
+    private Sorters() {
+    }
+
+    public static void main(String[] args) {
+        String[] words = {"pear", "fig", "apple", "kiwi", "banana"};
+        for (String name : names()) {
+            String[] copy = words.clone();
+            Sorters.<String>get(name).sort(copy, Comparator.comparing(String::length));
+            System.out.println(name + ": " + String.join(" ", copy));
+        }
+    }
+
+    // Returns the sorter registered under the given name. Sorters do not depend on the
+    // element type, so any registered sorter can be used for any T.
+    @SuppressWarnings("unchecked")
+    public static <T> Sorter<T> get(String name) {
+        Sorter<?> sorter = REGISTRY.get(name);
+        if (sorter == null) {
+            throw new IllegalArgumentException("No sorter named " + name + ", known sorters are " + names());
+        }
+        return (Sorter<T>) sorter;
+    }
+
+    // Names of all registered sorters, in registration order
+    public static synchronized List<String> names() {
+        return new ArrayList<>(NAMES);
+    }
+
+    // Adds a sorter under its name; fails if the name is already taken
+    public static synchronized void register(Sorter<?> sorter) {
+        if (REGISTRY.putIfAbsent(sorter.name(), sorter) != null) {
+            throw new IllegalArgumentException("A sorter named " + sorter.name() + " is already registered");
+        }
+        NAMES.add(sorter.name());
+    }
+
+    static final class SelectionSorter<T> implements Sorter<T> {
+        @Override
+        public String name() {
+            return "selection";
+        }
+
+        @Override
+        public void sort(T[] a, Comparator<? super T> c) {
+            ObjectSorts.selectionSort(a, c);
+        }
+
+        @Override
+        public void sort(int[] a) {
+            PrimitiveSorts.selectionSort(a);
+        }
+
+        @Override
+        public void sort(long[] a) {
+            PrimitiveSorts.selectionSort(a);
+        }
+
+        @Override
+        public void sort(double[] a) {
+            PrimitiveSorts.selectionSort(a);
+        }
+    }
+
+    static final class InsertionSorter<T> implements Sorter<T> {
+        @Override
+        public String name() {
+            return "insertion";
+        }
+
+        @Override
+        public void sort(T[] a, Comparator<? super T> c) {
+            ObjectSorts.insertionSort(a, c);
+        }
+
+        @Override
+        public void sort(int[] a) {
+            InsertionSort.insertionSort(a, 0, a.length);
+        }
+
+        @Override
+        public void sort(long[] a) {
+            PrimitiveSorts.insertionSort(a);
+        }
+
+        @Override
+        public void sort(double[] a) {
+            PrimitiveSorts.insertionSort(a);
+        }
+    }
+
+    static final class MergeSorter<T> implements Sorter<T> {
+        @Override
+        public String name() {
+            return "merge";
+        }
+
+        @Override
+        public void sort(T[] a, Comparator<? super T> c) {
+            ObjectSorts.mergeSort(a, c);
+        }
+
+        @Override
+        public void sort(int[] a) {
+            MergeSort.sort(a);
+        }
+
+        @Override
+        public void sort(long[] a) {
+            MergeSort.sort(a);
+        }
+
+        @Override
+        public void sort(double[] a) {
+            PrimitiveSorts.mergeSort(a);
+        }
+    }
+
+    static final class QuickSorter<T> implements Sorter<T> {
+        @Override
+        public String name() {
+            return "quick";
+        }
+
+        @Override
+        public void sort(T[] a, Comparator<? super T> c) {
+            ObjectSorts.quickSort(a, c);
+        }
+
+        @Override
+        public void sort(int[] a) {
+            QuickSort.introSort(a);
+        }
+
+        @Override
+        public void sort(long[] a) {
+            PrimitiveSorts.quickSort(a);
+        }
+
+        @Override
+        public void sort(double[] a) {
+            PrimitiveSorts.quickSort(a);
+        }
+    }
+}
@@ -17,6 +17,18 @@ public class Person implements Comparable<Person> {
         this.age = age;
     }
 
+    public String getFirstName() {
+        return firstName;
+    }
+
+    public String getLastName() {
+        return lastName;
+    }
+
+    public int getAge() {
+        return age;
+    }
+
     @Override
     public String toString() {
         return firstName + " " + lastName + " (" + age + ")";
@@ -0,0 +1,274 @@
+import java.util.Arrays;
+import java.util.Objects;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD quicksort for int keys on the incubating Vector API (JDK 17).
+//
+// Ranges of up to two vectors are sorted with a bitonic network: each vector is sorted by
+// six compare-exchange stages of rearrange, min, max and blend, and the two vectors are then
+// merged by a bitonic merge. Larger ranges are split by a vectorized in-place partition.
+// JDK 17 has no compress operation, so each vector is permuted through a table of lane
+// indices, looked up by the mask of lanes below the pivot, that lists those lanes first and
+// the rest after them; the same permuted vector is stored at the left write cursor and at
+// the right one, and the cursors advance by the two lane counts. A vector is kept back from
+// each end of the range so there is always room for both stores.
+//
+// The table has 2^L entries for L lanes, so the kernels use 256-bit vectors (8 ints) even
+// where wider ones exist, and refuse to load where they do not. Recursion is limited to
+// 2*log2(n) levels, after which QuickSort finishes the range, so the worst case stays
+// O(n log n).
+//
+// This file is compiled separately because it needs the incubator module:
+//
+//   javac -d out Sorts/*.java MergeSort/*.java Benchmark/*.java
+//   javac --add-modules jdk.incubator.vector -cp out -d out Vector/*.java
+//   java --add-modules jdk.incubator.vector -cp out ...
+//
+// Callers should go through VectorSort, which falls back to QuickSort when this class or
+// the module is missing.
+public final class VectorSortKernels {
+
+    static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_256;
+
+    static final int LANES = SPECIES.length();
+
+    // Ranges at or below this size are sorted by the sorting network
+    static final int NETWORK_SIZE = 2 * LANES;
+
+    // For each mask of lanes below the pivot, LANES lane indices that move those lanes to the
+    // front and the others behind them, both groups in lane order
+    private static final int[] COMPRESS = compressTable();
+
+    // Lane i holds 1 << i, so blending with a mask and OR-reducing yields the mask's bits
+    private static final IntVector LANE_BITS = IntVector.fromArray(SPECIES, new int[] {1, 2, 4, 8, 16, 32, 64, 128}, 0);
+
+    // Shuffles and masks are kept in constant fields rather than arrays: the JIT only turns
+    // rearrange and blend into single instructions when their operands are constants, and
+    // boxes every vector otherwise. The network is unrolled for 8 lanes for the same reason.
+    private static final VectorShuffle<Integer> PARTNER_1 = VectorShuffle.fromOp(SPECIES, i -> i ^ 1);
+    private static final VectorShuffle<Integer> PARTNER_2 = VectorShuffle.fromOp(SPECIES, i -> i ^ 2);
+    private static final VectorShuffle<Integer> PARTNER_4 = VectorShuffle.fromOp(SPECIES, i -> i ^ 4);
+    private static final VectorShuffle<Integer> REVERSE = VectorShuffle.fromOp(SPECIES, i -> LANES - 1 - i);
+
+    // Lanes that keep the minimum in the compare-exchange of sorted blocks of k lanes with
+    // partners at distance j: blocks alternate between ascending and descending order, and
+    // at k = LANES the whole vector ascends
+    private static final VectorMask<Integer> MIN_2_1 = keepMinMask(2, 1);
+    private static final VectorMask<Integer> MIN_4_2 = keepMinMask(4, 2);
+    private static final VectorMask<Integer> MIN_4_1 = keepMinMask(4, 1);
+    private static final VectorMask<Integer> MIN_8_4 = keepMinMask(8, 4);
+    private static final VectorMask<Integer> MIN_8_2 = keepMinMask(8, 2);
+    private static final VectorMask<Integer> MIN_8_1 = keepMinMask(8, 1);
+
+    static {
+        // Narrower hardware would run every vector operation in Java code, far slower than
+        // QuickSort, so refuse to load and let VectorSort fall back
+        if (IntVector.SPECIES_PREFERRED.vectorBitSize() < SPECIES.vectorBitSize()) {
+            throw new UnsupportedOperationException("256-bit vectors are not supported by this CPU");
+        }
+    }
+
+    private VectorSortKernels() {
+    }
+
+    // Sorts a[from..to) in place
+    public static void sort(int[] a, int from, int to) {
+        Objects.checkFromToIndex(from, to, a.length);
+        if (to - from > 1) {
+            sortRange(a, from, to, 2 * (31 - Integer.numberOfLeadingZeros(to - from)), new int[3 * LANES]);
+        }
+    }
+
+    // rest is scratch space for partition and sortNetwork, shared by all levels
+    private static void sortRange(int[] a, int from, int to, int depthLimit, int[] rest) {
+        while (to - from > NETWORK_SIZE) {
+            if (depthLimit-- == 0) {
+                QuickSort.sort(a, from, to, QuickSort.Partition.TWO_WAY);
+                return;
+            }
+            int pivot = a[choosePivot(a, from, to - 1)];
+            int split = partition(a, from, to, pivot, rest);
+            if (split == from) {
+                // Nothing is below the pivot, so it is the minimum: gather the keys equal to
+                // it at the front, where they are already in place
+                if (pivot == Integer.MAX_VALUE) {
+                    return;
+                }
+                from = partition(a, from, to, pivot + 1, rest);
+                continue;
+            }
+            if (split - from < to - split) {
+                sortRange(a, from, split, depthLimit, rest);
+                from = split;
+            } else {
+                sortRange(a, split, to, depthLimit, rest);
+                to = split;
+            }
+        }
+        sortNetwork(a, from, to - from, rest);
+    }
+
+    // Moves the keys below the pivot to the front of a[from..to) and returns the index of the
+    // first other key
+    private static int partition(int[] a, int from, int to, int pivot, int[] rest) {
+        if (to - from < 3 * LANES) {
+            int split = from;
+            for (int i = from; i < to; i++) {
+                if (a[i] < pivot) {
+                    int temp = a[i];
+                    a[i] = a[split];
+                    a[split++] = temp;
+                }
+            }
+            return split;
+        }
+
+        IntVector savedLeft = IntVector.fromArray(SPECIES, a, from);
+        IntVector savedRight = IntVector.fromArray(SPECIES, a, to - LANES);
+        int readLeft = from + LANES;
+        int readRight = to - LANES;
+        int writeLeft = from;
+        int writeRight = to;
+        while (readRight - readLeft >= LANES) {
+            // Read from the side with less free space so both stores below have room
+            IntVector v;
+            if (readLeft - writeLeft <= writeRight - readRight) {
+                v = IntVector.fromArray(SPECIES, a, readLeft);
+                readLeft += LANES;
+            } else {
+                readRight -= LANES;
+                v = IntVector.fromArray(SPECIES, a, readRight);
+            }
+            int mask = IntVector.zero(SPECIES).blend(LANE_BITS, v.compare(VectorOperators.LT, pivot))
+                    .reduceLanes(VectorOperators.OR);
+            int count = Integer.bitCount(mask);
+            IntVector packed = IntVector.fromArray(SPECIES, COMPRESS, mask * LANES).selectFrom(v);
+            packed.intoArray(a, writeLeft);
+            packed.intoArray(a, writeRight - LANES);
+            writeLeft += count;
+            writeRight -= LANES - count;
+        }
+
+        // The fewer than LANES unread keys and the two saved vectors fill the remaining gap
+        int restCount = readRight - readLeft;
+        System.arraycopy(a, readLeft, rest, 0, restCount);
+        savedLeft.intoArray(rest, restCount);
+        savedRight.intoArray(rest, restCount + LANES);
+        for (int i = 0, end = restCount + 2 * LANES; i < end; i++) {
+            int key = rest[i];
+            if (key < pivot) {
+                a[writeLeft++] = key;
+            } else {
+                a[--writeRight] = key;
+            }
+        }
+        return writeLeft;
+    }
+
+    // Sorts the n <= 2*LANES keys at a[from] with the bitonic network. They are staged in
+    // buffer padded with Integer.MAX_VALUE, which sorts last and is not copied back, because
+    // masked loads and stores are not intrinsified on every JDK 17 target.
+    private static void sortNetwork(int[] a, int from, int n, int[] buffer) {
+        if (n < 2) {
+            return;
+        }
+        System.arraycopy(a, from, buffer, 0, n);
+        Arrays.fill(buffer, n, NETWORK_SIZE, Integer.MAX_VALUE);
+        sortLanes(buffer, 0);
+        sortLanes(buffer, LANES);
+        // The first vector ascends and the reversed second descends, so lane-wise min and max
+        // leave the lower and upper halves in two bitonic vectors
+        IntVector low = IntVector.fromArray(SPECIES, buffer, 0);
+        IntVector high = IntVector.fromArray(SPECIES, buffer, LANES).rearrange(REVERSE);
+        low.min(high).intoArray(buffer, 0);
+        low.max(high).intoArray(buffer, LANES);
+        mergeLanes(buffer, 0);
+        mergeLanes(buffer, LANES);
+        System.arraycopy(buffer, 0, a, from, n);
+    }
+
+    // The network stages work on arrays and spell out every compare-exchange (rearrange to the
+    // partner lane, then min, max and blend) instead of passing vectors between helpers: C2
+    // stops inlining long chains of vector code, and a vector that crosses a call that was not
+    // inlined is boxed and processed lane by lane.
+
+    // Bitonic sort of the LANES keys at buffer[offset]
+    private static void sortLanes(int[] buffer, int offset) {
+        IntVector v = IntVector.fromArray(SPECIES, buffer, offset);
+        IntVector w = v.rearrange(PARTNER_1);
+        v = v.max(w).blend(v.min(w), MIN_2_1);
+        w = v.rearrange(PARTNER_2);
+        v = v.max(w).blend(v.min(w), MIN_4_2);
+        w = v.rearrange(PARTNER_1);
+        v = v.max(w).blend(v.min(w), MIN_4_1);
+        w = v.rearrange(PARTNER_4);
+        v = v.max(w).blend(v.min(w), MIN_8_4);
+        w = v.rearrange(PARTNER_2);
+        v = v.max(w).blend(v.min(w), MIN_8_2);
+        w = v.rearrange(PARTNER_1);
+        v = v.max(w).blend(v.min(w), MIN_8_1);
+        v.intoArray(buffer, offset);
+    }
+
+    // Sorts the bitonic sequence of LANES keys at buffer[offset]
+    private static void mergeLanes(int[] buffer, int offset) {
+        IntVector v = IntVector.fromArray(SPECIES, buffer, offset);
+        IntVector w = v.rearrange(PARTNER_4);
+        v = v.max(w).blend(v.min(w), MIN_8_4);
+        w = v.rearrange(PARTNER_2);
+        v = v.max(w).blend(v.min(w), MIN_8_2);
+        w = v.rearrange(PARTNER_1);
+        v = v.max(w).blend(v.min(w), MIN_8_1);
+        v.intoArray(buffer, offset);
+    }
+
+    private static int choosePivot(int[] a, int left, int right) {
+        int mid = (left + right) >>> 1;
+        if (right - left + 1 <= 128) {
+            return medianOfThree(a, left, mid, right);
+        }
+        int step = (right - left + 1) / 8;
+        int first = medianOfThree(a, left, left + step, left + 2 * step);
+        int middle = medianOfThree(a, mid - step, mid, mid + step);
+        int last = medianOfThree(a, right - 2 * step, right - step, right);
+        return medianOfThree(a, first, middle, last);
+    }
+
+    private static int medianOfThree(int[] a, int i, int j, int k) {
+        if (a[i] < a[j]) {
+            return a[j] < a[k] ? j : (a[i] < a[k] ? k : i);
+        }
+        return a[i] < a[k] ? i : (a[j] < a[k] ? k : j);
+    }
+
+    private static int[] compressTable() {
+        int[] table = new int[(1 << LANES) * LANES];
+        for (int mask = 0; mask < 1 << LANES; mask++) {
+            int next = mask * LANES;
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) != 0) {
+                    table[next++] = lane;
+                }
+            }
+            for (int lane = 0; lane < LANES; lane++) {
+                if ((mask & (1 << lane)) == 0) {
+                    table[next++] = lane;
+                }
+            }
+        }
+        return table;
+    }
+
+    private static VectorMask<Integer> keepMinMask(int k, int j) {
+        boolean[] keepMin = new boolean[LANES];
+        for (int i = 0; i < LANES; i++) {
+            keepMin[i] = ((i & k) == 0) == ((i & j) == 0);
+        }
+        return VectorMask.fromArray(SPECIES, keepMin, 0);
+    }
+}